@@ -0,0 +1,37 @@
+package org.example.benchmarks;
+
+// Account population shared by all three variants so their numbers are comparable.
+// "monomorphic" uses savings accounts only; "megamorphic" interleaves every account type at each call site.
+final class AccountMix {
+    static final int ACCOUNTS = 1024;
+    static final int CUSTOMERS = 256;
+    static final double INITIAL_BALANCE = 1_000_000_000;
+    static final double OVERDRAFT_LIMIT = 200;
+    // Small enough that repeated accrual never overflows during a run
+    static final double INTEREST_RATE = 1e-9;
+
+    private static final String[] MONOMORPHIC = {"savings"};
+    private static final String[] MEGAMORPHIC = {"checking", "savings", "loan", "basic"};
+    private static final String[] CUSTOMER_NAMES = new String[CUSTOMERS];
+
+    static {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            CUSTOMER_NAMES[i] = "customer" + i;
+        }
+    }
+
+    private AccountMix() {
+    }
+
+    static String[] types(String callSite) {
+        return "megamorphic".equals(callSite) ? MEGAMORPHIC : MONOMORPHIC;
+    }
+
+    static String customer(int index) {
+        return CUSTOMER_NAMES[index & (CUSTOMERS - 1)];
+    }
+
+    static double additionalInfo(String type) {
+        return "checking".equals(type) ? OVERDRAFT_LIMIT : INTEREST_RATE;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.SnowflakeAccountNumberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// One generator shared by 1, 8 and 32 threads, to show whether the single CAS collapses under contention.
+// AccountNumberUniquenessCheck covers the no-duplicates side.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountNumberBenchmark {
+    private final SnowflakeAccountNumberGenerator generator = new SnowflakeAccountNumberGenerator();
+
+    @Benchmark
+    @Threads(1)
+    public long nextId1() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextId8() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long nextId32() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextAccountNumber8() {
+        return generator.nextAccountNumber();
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.SnowflakeAccountNumberGenerator;
+
+import java.util.Arrays;
+
+// Draws ids from one shared generator on many threads at once, then sorts them all and counts duplicates.
+// Exits with status 1 if any id was handed out twice.
+// Usage: java -cp target/benchmarks.jar org.example.benchmarks.AccountNumberUniquenessCheck [threads] [idsPerThread]
+public class AccountNumberUniquenessCheck {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        SnowflakeAccountNumberGenerator generator = new SnowflakeAccountNumberGenerator();
+        long[][] ids = new long[threads][idsPerThread];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] out = ids[t];
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = generator.nextId();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = new long[threads * idsPerThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(ids[t], 0, all, t * idsPerThread, idsPerThread);
+        }
+        Arrays.sort(all);
+        int duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        System.out.printf("%d threads, %d ids in %.2f s: %.1f M ids/s, %d duplicates%n", threads, all.length,
+                elapsed / 1e9, all.length / (elapsed / 1e3), duplicates);
+        if (duplicates > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.AccountFactory;
+import org.example.improveWithIC.AccountStore;
+import org.example.improveWithIC.BankAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Full-book scans over one BankAccount object per account against the same book in an AccountStore.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AccountStoreBenchmark {
+    private static final int ACCOUNTS = 1_000_000;
+    private static final String[] TYPES = AccountMix.types("megamorphic");
+
+    private BankAccount[] objects = new BankAccount[ACCOUNTS];
+    private AccountStore store = new AccountStore(ACCOUNTS);
+
+    @Setup
+    public void setUp() {
+        AccountFactory factory = new AccountFactory();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String type = TYPES[i % TYPES.length];
+            double balance = (i % 10) * 100 - 200;
+            double info = AccountMix.additionalInfo(type);
+            objects[i] = (BankAccount) factory.createAccount(type, factory.nextAccountNumber(), balance, info);
+            store.create(type, balance, info);
+        }
+    }
+
+    @Benchmark
+    public double objectsTotalBalance() {
+        double total = 0;
+        for (BankAccount account : objects) {
+            total += account.getBalance();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double storeTotalBalance() {
+        return store.totalBalance();
+    }
+
+    @Benchmark
+    public int objectsCountOverdrawn() {
+        int count = 0;
+        for (BankAccount account : objects) {
+            if (account.getBalance() < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int storeCountOverdrawn() {
+        return store.findOverdrawn().length;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.BankAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 20:1 balance reads to deposits on a few hot accounts shared by all threads, at 1, 8 and 32 threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dbank.metrics=false"})
+public class BalanceReadBenchmark {
+    private static final int ACCOUNTS = 16;
+    private static final int READS_PER_WRITE = 20;
+
+    private BankAccount[] accounts;
+
+    // Accounts are rebuilt every iteration so transaction histories do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void setUp() {
+        accounts = new BankAccount[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = new BankAccount("ACC" + i, AccountMix.INITIAL_BALANCE, null, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double mixed1(Cursor cursor) {
+        return operation(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public double mixed8(Cursor cursor) {
+        return operation(cursor);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public double mixed32(Cursor cursor) {
+        return operation(cursor);
+    }
+
+    private double operation(Cursor cursor) {
+        int op = cursor.next++;
+        BankAccount account = accounts[op & (ACCOUNTS - 1)];
+        if (op % (READS_PER_WRITE + 1) == 0) {
+            account.deposit(1);
+            return 0;
+        }
+        return account.getBalance();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.AccountFactory;
+import org.example.improveWithIC.AccountManager;
+import org.example.improveWithIC.BankAccount;
+import org.example.improveWithIC.CommandServer;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Closed-loop load test: every client owns one session and sends its next request as soon as the previous one
+// is answered. Prints throughput and p50/p99/p99.9 latency.
+// Usage: java -cp target/benchmarks.jar org.example.benchmarks.CommandServerLoadTest [sessions] [requestsPerSession]
+public class CommandServerLoadTest {
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requestsPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        AccountManager accountManager = new AccountManager(new AccountFactory());
+        String[] accountNumbers = new String[AccountMix.ACCOUNTS];
+        for (int i = 0; i < accountNumbers.length; i++) {
+            BankAccount account = (BankAccount) accountManager.createAccount("checking", AccountMix.customer(i),
+                    AccountMix.INITIAL_BALANCE, AccountMix.OVERDRAFT_LIMIT);
+            accountNumbers[i] = account.getAccountNumber();
+        }
+
+        long[] latencies = new long[sessions * requestsPerSession];
+        ExecutorService clients = virtualThreadsIfAvailable();
+        long start = System.nanoTime();
+        try (CommandServer server = new CommandServer(accountManager)) {
+            for (int s = 0; s < sessions; s++) {
+                int offset = s * requestsPerSession;
+                clients.execute(() -> runClient(server, accountNumbers, latencies, offset, requestsPerSession));
+            }
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.HOURS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d sessions, %d requests in %.2f s: %.0f requests/s%n", sessions, latencies.length,
+                elapsed / 1e9, latencies.length / (elapsed / 1e9));
+        System.out.printf("p50 %.1f us, p99 %.1f us, p99.9 %.1f us%n", percentile(latencies, 0.50),
+                percentile(latencies, 0.99), percentile(latencies, 0.999));
+    }
+
+    private static void runClient(CommandServer server, String[] accountNumbers, long[] latencies, int offset, int requests) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (CommandServer.Session session = server.openSession()) {
+            for (int i = 0; i < requests; i++) {
+                String account = accountNumbers[random.nextInt(accountNumbers.length)];
+                long sent = System.nanoTime();
+                switch (i & 3) {
+                    case 0:
+                        session.deposit(account, 1).join();
+                        break;
+                    case 1:
+                        session.withdraw(account, 1).join();
+                        break;
+                    case 2:
+                        session.transfer(account, accountNumbers[random.nextInt(accountNumbers.length)], 1).join();
+                        break;
+                    default:
+                        session.balance(account).join();
+                }
+                latencies[offset + i] = System.nanoTime() - sent;
+            }
+        }
+    }
+
+    private static ExecutorService virtualThreadsIfAvailable() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))] / 1_000.0;
+    }
+}
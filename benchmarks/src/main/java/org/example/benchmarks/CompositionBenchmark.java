@@ -0,0 +1,111 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.AccountFactory;
+import org.example.improveWithIC.AccountManager;
+import org.example.improveWithIC.BankAccount;
+import org.example.improveWithIC.CheckingProduct;
+import org.example.improveWithIC.InterestProduct;
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IAccountProduct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Approach 3: composition. One IAccount class; the mix only changes which IOverdraft / IInterest are plugged in.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompositionBenchmark {
+    @Param({"monomorphic", "megamorphic"})
+    public String callSite;
+
+    private String[] types;
+    private int[] productCodes;
+    private AccountManager manager;
+    private IAccount[] accounts;
+    private int next;
+
+    // Accounts are rebuilt every iteration so transaction histories do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void setUp() {
+        types = AccountMix.types(callSite);
+        AccountFactory factory = new AccountFactory();
+        productCodes = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            // Own names, so createAccount(type, ...) keeps measuring the built-in types
+            productCodes[i] = factory.register("product-" + types[i], product(types[i]));
+        }
+        manager = new AccountManager(factory, AccountMix.ACCOUNTS);
+        accounts = new IAccount[AccountMix.ACCOUNTS];
+        for (int i = 0; i < accounts.length; i++) {
+            String type = types[i % types.length];
+            accounts[i] = manager.createAccount(type, AccountMix.customer(i), AccountMix.INITIAL_BALANCE, AccountMix.additionalInfo(type));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public void deposit() {
+        nextAccount().deposit(1);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        nextAccount().withdraw(1);
+    }
+
+    @Benchmark
+    public void calculateInterest() {
+        ((BankAccount) nextAccount()).calculateInterest();
+    }
+
+    @Benchmark
+    public void transfer() {
+        manager.transferFunds(nextAccount(), nextAccount(), 1);
+    }
+
+    @Benchmark
+    public IAccount createAccount() {
+        String type = types[next++ % types.length];
+        return manager.createAccount(type, AccountMix.customer(next), AccountMix.INITIAL_BALANCE, AccountMix.additionalInfo(type));
+    }
+
+    @Benchmark
+    public IAccount createAccountFromProduct() {
+        return manager.createAccount(productCodes[next++ % productCodes.length], AccountMix.customer(next), AccountMix.INITIAL_BALANCE);
+    }
+
+    private static IAccountProduct product(String type) {
+        switch (type) {
+            case "checking":
+                return new CheckingProduct(AccountMix.OVERDRAFT_LIMIT);
+            case "basic":
+                return (accountNumber, initialBalance) -> new BankAccount(accountNumber, initialBalance, null, null);
+            default:
+                return new InterestProduct(AccountMix.INTEREST_RATE);
+        }
+    }
+
+    private IAccount nextAccount() {
+        return accounts[next++ & (AccountMix.ACCOUNTS - 1)];
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.BankAccount;
+import org.example.improveWithIC.InterestBearing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one interest posting on the composition design. Run with "-prof gc": gc.alloc.rate.norm should stay
+// at the journal's own amortised storage (about 21 bytes per entry) with no per-call garbage on top.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InterestAccrualBenchmark {
+    private BankAccount account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = new BankAccount("ACC1", AccountMix.INITIAL_BALANCE, null, new InterestBearing(AccountMix.INTEREST_RATE));
+    }
+
+    @Benchmark
+    public void calculateInterest() {
+        account.calculateInterest();
+    }
+}
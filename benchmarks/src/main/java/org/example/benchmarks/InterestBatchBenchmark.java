@@ -0,0 +1,74 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.CompoundingInterest;
+import org.example.improveWithIC.DayCount;
+import org.example.improveWithIC.InterestBearing;
+import org.example.improveWithIC.TieredInterest;
+import org.example.improveWithIC.interfaces.IInterest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-balance calls against the batch form of each interest strategy, reported per balance.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterestBatchBenchmark {
+    private static final int BALANCES = 4096;
+
+    @Param({"flat", "compounding", "tiered"})
+    public String strategy;
+
+    private IInterest interest;
+    private double[] balances = new double[BALANCES];
+    private double[] accruals = new double[BALANCES];
+
+    @Setup
+    public void setUp() {
+        switch (strategy) {
+            case "compounding":
+                interest = CompoundingInterest.daily(0.05, DayCount.ACTUAL_365);
+                break;
+            case "tiered":
+                interest = new TieredInterest(new double[]{0, 10_000, 100_000}, new double[]{0.0001, 0.0002, 0.0003});
+                break;
+            default:
+                interest = new InterestBearing(0.0001);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < BALANCES; i++) {
+            balances[i] = random.nextDouble() * 200_000;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BALANCES)
+    public double[] perBalance() {
+        for (int i = 0; i < BALANCES; i++) {
+            accruals[i] = interest.calculateInterest(balances[i]);
+        }
+        return accruals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BALANCES)
+    public double[] batch() {
+        interest.calculateInterest(balances, accruals, BALANCES);
+        return accruals;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.BankAccount;
+import org.example.improveWithIC.FixedPointBankAccount;
+import org.example.improveWithIC.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// The same money arithmetic on double, on Money's long minor units and on BigDecimal: summing a batch of postings
+// and crediting interest on a batch of balances, rounded to cents. The deposit pair compares the two accounts.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dbank.metrics=false"})
+public class MoneyBenchmark {
+    private static final int BATCH = 1024;
+    private static final BigDecimal RATE = BigDecimal.valueOf(AccountMix.INTEREST_RATE);
+
+    private final double[] doubles = new double[BATCH];
+    private final long[] minorUnits = new long[BATCH];
+    private final BigDecimal[] decimals = new BigDecimal[BATCH];
+    private final long rate = Money.toRate(AccountMix.INTEREST_RATE);
+
+    private BankAccount account;
+    private FixedPointBankAccount fixedPointAccount;
+
+    @Setup
+    public void setUpAmounts() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < BATCH; i++) {
+            long cents = random.nextLong(1, 1_000_000);
+            minorUnits[i] = cents;
+            doubles[i] = Money.toDouble(cents);
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    // Accounts are rebuilt every iteration so transaction histories do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void setUpAccounts() {
+        account = new BankAccount("ACC1", AccountMix.INITIAL_BALANCE, null, null);
+        fixedPointAccount = new FixedPointBankAccount("ACC2", Money.toMinorUnits(AccountMix.INITIAL_BALANCE), 0, 0);
+    }
+
+    @Benchmark
+    public double sumDouble() {
+        double total = 0;
+        for (double amount : doubles) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double interestDouble() {
+        double total = 0;
+        for (double balance : doubles) {
+            total += Math.round(balance * AccountMix.INTEREST_RATE * 100) / 100.0;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long interestMinorUnits() {
+        long total = 0;
+        for (long balance : minorUnits) {
+            total += Money.applyRate(balance, rate);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal interestBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal balance : decimals) {
+            total = total.add(balance.multiply(RATE).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void depositDouble() {
+        account.deposit(1.25);
+    }
+
+    @Benchmark
+    public void depositMinorUnits() {
+        fixedPointAccount.depositMinor(125);
+    }
+}
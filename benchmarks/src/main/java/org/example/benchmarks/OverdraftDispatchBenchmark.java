@@ -0,0 +1,93 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.BankAccount;
+import org.example.improveWithIC.CompoundingInterest;
+import org.example.improveWithIC.DayCount;
+import org.example.improveWithIC.InterestBearing;
+import org.example.improveWithIC.OverdraftPolicy;
+import org.example.improveWithIC.OverdraftProtection;
+import org.example.improveWithIC.interfaces.IInterest;
+import org.example.improveWithIC.interfaces.IOverdraft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Withdraw and interest call sites when every account plugs in the same behaviours ("uniform") against a book
+// mixing fixed, policy-backed, custom and missing overdrafts plus flat and custom interest ("mixed").
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dbank.metrics=false"})
+public class OverdraftDispatchBenchmark {
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"uniform", "mixed"})
+    public String mix;
+
+    private BankAccount[] accounts;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        OverdraftPolicy policy = new OverdraftPolicy(Map.of(OverdraftPolicy.STANDARD, AccountMix.OVERDRAFT_LIMIT));
+        IOverdraft[] overdrafts = "mixed".equals(mix)
+                ? new IOverdraft[]{new OverdraftProtection(AccountMix.OVERDRAFT_LIMIT), policy.forSegment(OverdraftPolicy.STANDARD),
+                        new CustomOverdraft(AccountMix.OVERDRAFT_LIMIT), null}
+                : new IOverdraft[]{new OverdraftProtection(AccountMix.OVERDRAFT_LIMIT)};
+        IInterest[] interests = "mixed".equals(mix)
+                ? new IInterest[]{new InterestBearing(AccountMix.INTEREST_RATE), CompoundingInterest.daily(AccountMix.INTEREST_RATE, DayCount.ACTUAL_365),
+                        balance -> balance * AccountMix.INTEREST_RATE}
+                : new IInterest[]{new InterestBearing(AccountMix.INTEREST_RATE)};
+        accounts = new BankAccount[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = new BankAccount("ACC" + i, AccountMix.INITIAL_BALANCE,
+                    overdrafts[i % overdrafts.length], interests[i % interests.length]);
+        }
+    }
+
+    @Benchmark
+    public Object withdraw() {
+        return nextAccount().withdraw(1);
+    }
+
+    @Benchmark
+    public void calculateInterest() {
+        nextAccount().calculateInterest();
+    }
+
+    private BankAccount nextAccount() {
+        return accounts[next++ & (ACCOUNTS - 1)];
+    }
+
+    private static final class CustomOverdraft implements IOverdraft {
+        private final double limit;
+
+        CustomOverdraft(double limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean canWithdraw(double amount, double balance) {
+            return balance + limit >= amount;
+        }
+
+        @Override
+        public double getOverdraftLimit() {
+            return limit;
+        }
+    }
+}
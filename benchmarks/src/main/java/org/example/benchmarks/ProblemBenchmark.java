@@ -0,0 +1,84 @@
+package org.example.benchmarks;
+
+import org.example.problem.AccountManager;
+import org.example.problem.accounts.BankAccount;
+import org.example.problem.accounts.LoanAccount;
+import org.example.problem.accounts.SavingsAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Approach 1: inheritance. Interest has no common type, so it is dispatched with instanceof checks as in Main.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProblemBenchmark {
+    @Param({"monomorphic", "megamorphic"})
+    public String callSite;
+
+    private String[] types;
+    private AccountManager manager;
+    private BankAccount[] accounts;
+    private int next;
+
+    // Accounts are rebuilt every iteration so transaction histories do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void setUp() {
+        types = AccountMix.types(callSite);
+        manager = new AccountManager();
+        accounts = new BankAccount[AccountMix.ACCOUNTS];
+        for (int i = 0; i < accounts.length; i++) {
+            String type = types[i % types.length];
+            accounts[i] = manager.createAccount(type, AccountMix.customer(i), AccountMix.INITIAL_BALANCE, AccountMix.additionalInfo(type));
+        }
+    }
+
+    @Benchmark
+    public void deposit() {
+        nextAccount().deposit(1);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        nextAccount().withdraw(1);
+    }
+
+    @Benchmark
+    public void calculateInterest() {
+        BankAccount account = nextAccount();
+        if (account instanceof SavingsAccount) {
+            ((SavingsAccount) account).calculateInterest();
+        } else if (account instanceof LoanAccount) {
+            ((LoanAccount) account).calculateInterest();
+        }
+    }
+
+    @Benchmark
+    public void transfer() {
+        manager.transferFunds(nextAccount(), nextAccount(), 1);
+    }
+
+    @Benchmark
+    public BankAccount createAccount() {
+        String type = types[next++ % types.length];
+        return manager.createAccount(type, AccountMix.customer(next), AccountMix.INITIAL_BALANCE, AccountMix.additionalInfo(type));
+    }
+
+    private BankAccount nextAccount() {
+        return accounts[next++ & (AccountMix.ACCOUNTS - 1)];
+    }
+}
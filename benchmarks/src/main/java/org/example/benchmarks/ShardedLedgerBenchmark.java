@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.improveWithIC.AccountFactory;
+import org.example.improveWithIC.AccountManager;
+import org.example.improveWithIC.BankAccount;
+import org.example.improveWithIC.ShardedLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transfer throughput of the single-writer ledger by shard count, against the locking transferFunds path.
+// Four producer threads each keep a window of transfers in flight before waiting for them.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class ShardedLedgerBenchmark {
+    private static final int WINDOW = 256;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int shards;
+
+    private AccountManager manager;
+    private ShardedLedger ledger;
+    private BankAccount[] accounts;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        manager = new AccountManager(new AccountFactory());
+        accounts = new BankAccount[AccountMix.ACCOUNTS];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = (BankAccount) manager.createAccount("basic", AccountMix.customer(i), AccountMix.INITIAL_BALANCE, 0);
+        }
+        ledger = new ShardedLedger(shards, 1 << 14);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ledger.close();
+        manager.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void shardedTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Boolean>[] replies = new CompletableFuture[WINDOW];
+        for (int i = 0; i < WINDOW; i++) {
+            replies[i] = ledger.transfer(randomAccount(random), randomAccount(random), 1);
+        }
+        CompletableFuture.allOf(replies).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void lockingTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < WINDOW; i++) {
+            manager.transferFunds(randomAccount(random), randomAccount(random), 1);
+        }
+    }
+
+    private BankAccount randomAccount(ThreadLocalRandom random) {
+        return accounts[random.nextInt(accounts.length)];
+    }
+}
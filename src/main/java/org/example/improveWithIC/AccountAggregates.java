@@ -0,0 +1,197 @@
+package org.example.improveWithIC;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+// Running totals per account, kept for the whole life of the account and per UTC day and month bucket.
+// Updated on every posting (under the account lock), so a statement is a bucket lookup rather than a history scan.
+// Day buckets are kept for DAY_RETENTION days; older days only survive rolled up into their month and the lifetime.
+class AccountAggregates {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    static final int DAY_RETENTION = 366;
+
+    private final PeriodBuckets lifetime = new PeriodBuckets(0);
+    private final PeriodBuckets days = new PeriodBuckets(DAY_RETENTION);
+    private final PeriodBuckets months = new PeriodBuckets(0);
+    private final double initialBalance;
+    private long currentDay = Long.MIN_VALUE;
+    private long currentMonth;
+
+    AccountAggregates(double initialBalance) {
+        this.initialBalance = initialBalance;
+    }
+
+    void record(byte type, double amount, double balanceAfter, long timestamp) {
+        long day = Math.floorDiv(timestamp, MILLIS_PER_DAY);
+        if (day != currentDay) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            currentDay = day;
+            currentMonth = monthId(date.getYear(), date.getMonthValue());
+        }
+        double balanceBefore = type == TransactionLog.WITHDRAWAL ? balanceAfter + amount : balanceAfter - amount;
+        lifetime.record(0, type, amount, balanceBefore, balanceAfter);
+        days.record(day, type, amount, balanceBefore, balanceAfter);
+        months.record(currentMonth, type, amount, balanceBefore, balanceAfter);
+    }
+
+    Statement lifetime() {
+        return lifetime.statement(0, initialBalance);
+    }
+
+    Statement day(LocalDate date) {
+        if (!days.retains(date.toEpochDay())) {
+            throw new IllegalArgumentException("Daily statements are kept for " + DAY_RETENTION + " days; " + date
+                    + " is only available in its monthly statement");
+        }
+        return days.statement(date.toEpochDay(), initialBalance);
+    }
+
+    Statement month(YearMonth month) {
+        return months.statement(monthId(month.getYear(), month.getMonthValue()), initialBalance);
+    }
+
+    private static long monthId(int year, int month) {
+        return year * 12L + month - 1;
+    }
+
+    // Buckets sorted by period id in parallel primitive arrays; postings almost always hit the last bucket.
+    // A posting that lands before the last bucket (e.g. a replayed record with an earlier timestamp) is treated as
+    // having happened at its timestamp: every later bucket's balances move by its amount.
+    private static final class PeriodBuckets {
+        // Shared until the first posting, so an account that never moves costs no bucket arrays
+        private static final long[] NO_LONGS = new long[0];
+        private static final double[] NO_DOUBLES = new double[0];
+
+        // Number of most recent period ids kept, 0 for all
+        private final int retention;
+        private long retainedFrom = Long.MIN_VALUE;
+        private int size;
+        private long[] ids = NO_LONGS;
+        private double[] opening = NO_DOUBLES;
+        private double[] closing = NO_DOUBLES;
+        private double[] deposits = NO_DOUBLES;
+        private double[] withdrawals = NO_DOUBLES;
+        private double[] interest = NO_DOUBLES;
+        private double[] min = NO_DOUBLES;
+        private double[] max = NO_DOUBLES;
+        private long[] counts = NO_LONGS;
+
+        PeriodBuckets(int retention) {
+            this.retention = retention;
+        }
+
+        void record(long id, byte type, double amount, double balanceBefore, double balanceAfter) {
+            double delta = balanceAfter - balanceBefore;
+            if (id < retainedFrom) {
+                shift(0, delta);
+                return;
+            }
+            int bucket = size > 0 && ids[size - 1] == id ? size - 1 : find(id);
+            if (bucket < 0) {
+                int at = -bucket - 1;
+                // Inserted between existing buckets, the period opens at the balance the next one opened at
+                bucket = insert(at, id, at < size ? opening[at] : balanceBefore);
+            }
+            if (type == TransactionLog.WITHDRAWAL) {
+                withdrawals[bucket] += amount;
+            } else if (type == TransactionLog.INTEREST) {
+                interest[bucket] += amount;
+            } else {
+                deposits[bucket] += amount;
+            }
+            if (bucket == size - 1) {
+                closing[bucket] = balanceAfter;
+            } else {
+                closing[bucket] += delta;
+                shift(bucket + 1, delta);
+            }
+            min[bucket] = Math.min(min[bucket], closing[bucket]);
+            max[bucket] = Math.max(max[bucket], closing[bucket]);
+            counts[bucket]++;
+        }
+
+        boolean retains(long id) {
+            return id >= retainedFrom;
+        }
+
+        // A period without activity reports the closing balance of the last active period before it
+        Statement statement(long id, double initialBalance) {
+            int bucket = find(id);
+            if (bucket >= 0) {
+                return new Statement(opening[bucket], closing[bucket], deposits[bucket], withdrawals[bucket],
+                        interest[bucket], min[bucket], max[bucket], counts[bucket]);
+            }
+            int previous = -bucket - 2;
+            double balance = previous >= 0 ? closing[previous] : size > 0 ? opening[0] : initialBalance;
+            return new Statement(balance, balance, 0, 0, 0, balance, balance, 0);
+        }
+
+        private int find(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        private void shift(int from, double delta) {
+            for (int i = from; i < size; i++) {
+                opening[i] += delta;
+                closing[i] += delta;
+                min[i] += delta;
+                max[i] += delta;
+            }
+        }
+
+        private int insert(int at, long id, double openingBalance) {
+            if (retention > 0 && at == size) {
+                at -= dropBefore(id - retention + 1);
+            }
+            if (size == ids.length) {
+                int capacity = Math.max(4, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                opening = Arrays.copyOf(opening, capacity);
+                closing = Arrays.copyOf(closing, capacity);
+                deposits = Arrays.copyOf(deposits, capacity);
+                withdrawals = Arrays.copyOf(withdrawals, capacity);
+                interest = Arrays.copyOf(interest, capacity);
+                min = Arrays.copyOf(min, capacity);
+                max = Arrays.copyOf(max, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            move(at, at + 1, size - at);
+            ids[at] = id;
+            opening[at] = openingBalance;
+            closing[at] = openingBalance;
+            deposits[at] = 0;
+            withdrawals[at] = 0;
+            interest[at] = 0;
+            min[at] = openingBalance;
+            max[at] = openingBalance;
+            counts[at] = 0;
+            size++;
+            return at;
+        }
+
+        // Forgets buckets before cutoff and returns how many were dropped
+        private int dropBefore(long cutoff) {
+            retainedFrom = Math.max(retainedFrom, cutoff);
+            int dropped = find(cutoff);
+            dropped = dropped >= 0 ? dropped : -dropped - 1;
+            if (dropped > 0) {
+                move(dropped, 0, size - dropped);
+                size -= dropped;
+            }
+            return dropped;
+        }
+
+        private void move(int from, int to, int length) {
+            System.arraycopy(ids, from, ids, to, length);
+            System.arraycopy(opening, from, opening, to, length);
+            System.arraycopy(closing, from, closing, to, length);
+            System.arraycopy(deposits, from, deposits, to, length);
+            System.arraycopy(withdrawals, from, withdrawals, to, length);
+            System.arraycopy(interest, from, interest, to, length);
+            System.arraycopy(min, from, min, to, length);
+            System.arraycopy(max, from, max, to, length);
+            System.arraycopy(counts, from, counts, to, length);
+        }
+    }
+}
@@ -2,19 +2,88 @@ package org.example.improveWithIC;
 
 import org.example.improveWithIC.interfaces.IAccount;
 import org.example.improveWithIC.interfaces.IAccountFactory;
+import org.example.improveWithIC.interfaces.IAccountNumberGenerator;
+import org.example.improveWithIC.interfaces.IAccountProduct;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Products are registered under a name and get a dense int code. Callers resolve the code once and then create
+// accounts by indexing an array, so hot onboarding loops never hash a type name.
 public class AccountFactory implements IAccountFactory {
+    private IAccountNumberGenerator accountNumberGenerator;
+    private OverdraftPolicy overdraftPolicy;
+    private final Map<String, Integer> productCodes = new ConcurrentHashMap<>();
+    private volatile IAccountProduct[] products = new IAccountProduct[0];
+
+    public AccountFactory() {
+        this(new SnowflakeAccountNumberGenerator());
+    }
+
+    public AccountFactory(IAccountNumberGenerator accountNumberGenerator) {
+        this(accountNumberGenerator, null);
+    }
+
+    // With a policy, checking accounts take the standard segment's shared limit instead of their own fixed one
+    public AccountFactory(IAccountNumberGenerator accountNumberGenerator, OverdraftPolicy overdraftPolicy) {
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.overdraftPolicy = overdraftPolicy;
+    }
+
+    // Registering an existing name replaces its product and keeps its code
+    public synchronized int register(String name, IAccountProduct product) {
+        Integer existing = productCodes.get(name);
+        int code = existing != null ? existing : products.length;
+        IAccountProduct[] updated = Arrays.copyOf(products, Math.max(products.length, code + 1));
+        updated[code] = product;
+        products = updated;
+        productCodes.put(name, code);
+        return code;
+    }
+
+    @Override
+    public int productCode(String name) {
+        Integer code = productCodes.get(name);
+        if (code == null) {
+            throw new IllegalArgumentException("Unknown product: " + name);
+        }
+        return code;
+    }
+
+    @Override
+    public IAccount createAccount(int productCode, String accountNumber, double initialBalance) {
+        IAccountProduct[] registered = products;
+        if (productCode < 0 || productCode >= registered.length) {
+            throw new IllegalArgumentException("Unknown product code: " + productCode);
+        }
+        Metrics.increment(Metrics.ACCOUNTS_CREATED);
+        return registered[productCode].create(accountNumber, initialBalance);
+    }
+
+    // Registered products take precedence and are configured at registration, so they reject a non-zero
+    // additionalInfo rather than silently ignore it; otherwise type must be a built-in AccountType
     @Override
     public IAccount createAccount(String type, String accountNumber, double initialBalance, double additionalInfo) {
-        switch (type) {
-            case "checking":
-                return new BankAccount(accountNumber, initialBalance, new OverdraftProtection(additionalInfo), null);
-            case "savings":
-                return new BankAccount(accountNumber, initialBalance, null, new InterestBearing(additionalInfo));
-            case "loan":
-                return new BankAccount(accountNumber, initialBalance, null, new InterestBearing(additionalInfo));
-            default:
-                return new BankAccount(accountNumber, initialBalance, null, null);
+        Integer code = productCodes.get(type);
+        if (code != null) {
+            if (additionalInfo != 0) {
+                throw new IllegalArgumentException("Product " + type
+                        + " is configured at registration and takes no additionalInfo, got " + additionalInfo);
+            }
+            return createAccount(code, accountNumber, initialBalance);
         }
+        Metrics.increment(Metrics.ACCOUNTS_CREATED);
+        return AccountType.of(type).product(additionalInfo, overdraftPolicy).create(accountNumber, initialBalance);
+    }
+
+    @Override
+    public OverdraftPolicy getOverdraftPolicy() {
+        return overdraftPolicy;
+    }
+
+    @Override
+    public String nextAccountNumber() {
+        return accountNumberGenerator.nextAccountNumber();
     }
 }
@@ -2,41 +2,260 @@ package org.example.improveWithIC;
 
 import org.example.improveWithIC.interfaces.IAccount;
 import org.example.improveWithIC.interfaces.IAccountFactory;
+import org.example.improveWithIC.interfaces.IInterest;
+import org.example.improveWithIC.interfaces.IOverdraft;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
 
-public class AccountManager {
-    private List<Customer> customers = new ArrayList<>();
+public class AccountManager implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Map<String, Customer> customers;
+    private Map<String, BankAccount> accounts;
     private IAccountFactory accountFactory;
+    private TransactionLog log;
+    private ShardedLedger ledger;
+    private final LongSupplier accountsGauge = () -> accounts.size();
+    private final LongSupplier customersGauge = () -> customers.size();
 
     public AccountManager(IAccountFactory accountFactory) {
+        this(accountFactory, DEFAULT_CAPACITY);
+    }
+
+    // initialCapacity is the number of accounts expected, so loading a large book never resizes the indexes
+    public AccountManager(IAccountFactory accountFactory, int initialCapacity) {
         this.accountFactory = accountFactory;
+        this.customers = new ConcurrentHashMap<>(initialCapacity);
+        this.accounts = new ConcurrentHashMap<>(initialCapacity);
+        Metrics.registerGauge("bank_accounts", accountsGauge);
+        Metrics.registerGauge("bank_customers", customersGauge);
     }
 
     public IAccount createAccount(String type, String customerName, double initialBalance, double additionalInfo) {
-        IAccount account = accountFactory.createAccount(type, "ACC" + System.currentTimeMillis(), initialBalance, additionalInfo);
+        String accountNumber = accountFactory.nextAccountNumber();
+        IAccount account = accountFactory.createAccount(type, accountNumber, initialBalance, additionalInfo);
+        return register(accountNumber, account, customerName);
+    }
+
+    public IAccount createAccount(int productCode, String customerName, double initialBalance) {
+        String accountNumber = accountFactory.nextAccountNumber();
+        return register(accountNumber, accountFactory.createAccount(productCode, accountNumber, initialBalance), customerName);
+    }
+
+    // Onboards one account of the product per customer name, in parallel; the result is in customerNames order
+    public IAccount[] createAccounts(int productCode, List<String> customerNames, double initialBalance) {
+        IAccount[] created = new IAccount[customerNames.size()];
+        IntStream.range(0, created.length).parallel()
+                .forEach(i -> created[i] = createAccount(productCode, customerNames.get(i), initialBalance));
+        return created;
+    }
 
-        Customer customer = findCustomerByName(customerName);
-        if (customer == null) {
-            customer = new Customer(customerName);
-            customers.add(customer);
+    // Adds an account that already has a number, e.g. one read from a book file. The account is built from the
+    // imported type and config alone, never from a product registered under the type's name. A checking account
+    // with a segment is bound to that segment of the factory's OverdraftPolicy, otherwise it keeps its fixed limit.
+    // Compounding or tiered interest, if given, replaces the flat rate in additionalInfo of a savings or loan account.
+    IAccount importAccount(String accountNumber, AccountType type, String customerName, double balance, double additionalInfo,
+                           String segment, IInterest interest) {
+        IOverdraft overdraft = null;
+        if (interest != null && type != AccountType.SAVINGS && type != AccountType.LOAN) {
+            throw new IllegalArgumentException("Account " + accountNumber + " has interest terms but is a "
+                    + type.getName() + " account");
         }
+        if (segment != null) {
+            OverdraftPolicy policy = accountFactory.getOverdraftPolicy();
+            if (type != AccountType.CHECKING || policy == null) {
+                throw new IllegalArgumentException("Account " + accountNumber + " names overdraft segment " + segment
+                        + " but is not a checking account or the account factory has no OverdraftPolicy");
+            }
+            overdraft = policy.forSegment(segment);
+        } else if (type == AccountType.CHECKING) {
+            overdraft = new OverdraftProtection(additionalInfo);
+        } else if ((type == AccountType.SAVINGS || type == AccountType.LOAN) && interest == null) {
+            interest = new InterestBearing(additionalInfo);
+        }
+        Metrics.increment(Metrics.ACCOUNTS_CREATED);
+        return register(accountNumber, new BankAccount(accountNumber, balance, overdraft, interest, type), customerName);
+    }
+
+    private IAccount register(String accountNumber, IAccount account, String customerName) {
+        BankAccount managed = managed(account);
+        if (accounts.putIfAbsent(accountNumber, managed) != null) {
+            throw new IllegalStateException("Duplicate account number " + accountNumber);
+        }
+        if (log != null) {
+            managed.attachLog(log);
+        }
+
+        Customer customer = customers.computeIfAbsent(customerName, Customer::new);
         customer.addAccount(account);
         return account;
     }
 
-    public void transferFunds(IAccount accountFrom, IAccount accountTo, double amount) {
-        accountFrom.withdraw(amount);
-        accountTo.deposit(amount);
+    public boolean transferFunds(IAccount accountFrom, IAccount accountTo, double amount) {
+        if (!Metrics.sampleTransfer()) {
+            return countTransfer(transfer(accountFrom, accountTo, amount));
+        }
+        long start = System.nanoTime();
+        boolean transferred = transfer(accountFrom, accountTo, amount);
+        Metrics.TRANSFER_LATENCY.record(System.nanoTime() - start);
+        return countTransfer(transferred);
+    }
+
+    private boolean transfer(IAccount accountFrom, IAccount accountTo, double amount) {
+        BankAccount from = managed(accountFrom);
+        BankAccount to = managed(accountTo);
+        if (ledger != null) {
+            return ledger.transfer(from, to, amount).join();
+        }
+
+        // Always lock in account-number order so two opposite transfers cannot deadlock
+        BankAccount first = from.getAccountNumber().compareTo(to.getAccountNumber()) <= 0 ? from : to;
+        BankAccount second = first == from ? to : from;
+        first.lock();
+        second.lock();
+        try {
+            if (!from.transferOut(to, amount).isCompleted()) {
+                return false;
+            }
+            to.transferIn(amount);
+            return true;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    // Locking, logging, checkpoints and interest runs all rely on BankAccount's internals, so the manager accepts
+    // nothing else, and says so instead of failing later with a ClassCastException
+    static BankAccount managed(IAccount account) {
+        if (account instanceof BankAccount) {
+            return (BankAccount) account;
+        }
+        throw new IllegalArgumentException("AccountManager only manages BankAccount, not "
+                + (account == null ? "null" : account.getClass().getName()));
+    }
+
+    private static boolean countTransfer(boolean transferred) {
+        Metrics.increment(transferred ? Metrics.TRANSFERS : Metrics.REJECTED_TRANSFERS);
+        return transferred;
+    }
+
+    public boolean[] transferBatch(List<Transfer> transfers) {
+        // Place each transfer in the wave after the last one touching either of its accounts.
+        // Transfers inside a wave share no account, so a wave can run fully in parallel while
+        // transfers on the same account still apply in submission order.
+        Map<IAccount, Integer> lastWave = new IdentityHashMap<>();
+        List<List<Integer>> waves = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            Transfer transfer = transfers.get(i);
+            int wave = Math.max(lastWave.getOrDefault(transfer.getFrom(), -1),
+                    lastWave.getOrDefault(transfer.getTo(), -1)) + 1;
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(i);
+            lastWave.put(transfer.getFrom(), wave);
+            lastWave.put(transfer.getTo(), wave);
+        }
+
+        boolean[] results = new boolean[transfers.size()];
+        for (List<Integer> wave : waves) {
+            IntStream.range(0, wave.size()).parallel().forEach(j -> {
+                int index = wave.get(j);
+                Transfer transfer = transfers.get(index);
+                results[index] = transferFunds(transfer.getFrom(), transfer.getTo(), transfer.getAmount());
+            });
+        }
+        return results;
+    }
+
+    // Routes transfers through single-writer shards instead of taking both account locks on the caller's thread
+    public void enableSharding(ShardedLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    public void accrueInterest(InterestRunner runner) {
+        runner.run(accounts.values(), log);
+    }
+
+    public Customer findCustomerByName(String name) {
+        return customers.get(name);
+    }
+
+    public IAccount findAccount(String accountNumber) {
+        return accounts.get(accountNumber);
+    }
+
+    // Every balance change from now on is appended to the log, including on accounts that already exist
+    public void enableLog(TransactionLog log) {
+        this.log = log;
+        for (BankAccount account : accounts.values()) {
+            account.attachLog(log);
+        }
     }
 
-    private Customer findCustomerByName(String name) {
-        for (Customer customer : customers) {
-            if (customer.getName().equals(name)) {
-                return customer;
+    boolean isLogEnabled() {
+        return log != null;
+    }
+
+    // Rebuilds balances of known accounts from the log; records for unknown accounts are skipped
+    public void replay(TransactionLog log) {
+        log.replay((position, type, accountNumber, amount, timestamp) -> {
+            BankAccount account = accounts.get(accountNumber);
+            if (account != null) {
+                account.replay(type, amount, timestamp);
             }
+        });
+    }
+
+    // Loads accounts, then applies the transactions file on top if one is given (see BookFormat)
+    public long importBook(Path accountsFile, Path transactionsFile, BookFormat format) {
+        long imported = BookImporter.importAccounts(this, accountsFile, format);
+        if (transactionsFile != null) {
+            BookImporter.importTransactions(this, transactionsFile, format);
         }
-        return null;
+        return imported;
+    }
+
+    public long exportBook(Path accountsFile, Path transactionsFile, BookFormat format) {
+        return BookExporter.export(customers.values(), accountsFile, transactionsFile, format);
+    }
+
+    public void checkpoint(Path file) {
+        AccountSnapshot.write(customers.values(), log, file);
+    }
+
+    // Loads a checkpoint into this (empty) manager, then replays only the log tail written after it. The log does not
+    // record account openings, so a record for an account the checkpoint does not know means that account was
+    // opened after it; restore refuses rather than silently dropping its balance. Checkpoint after opening accounts.
+    public void restore(Path snapshot, TransactionLog log) {
+        Map<String, Long> positions = AccountSnapshot.load(snapshot, customers, accounts, accountFactory.getOverdraftPolicy());
+        long from = positions.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+        log.replay(from, (position, type, accountNumber, amount, timestamp) -> {
+            Long capturedAt = positions.get(accountNumber);
+            if (capturedAt == null) {
+                throw new IllegalStateException("Transaction log has a record at position " + position + " for account "
+                        + accountNumber + ", which is not in snapshot " + snapshot
+                        + "; it was opened after the checkpoint and cannot be restored from it");
+            }
+            if (position >= capturedAt) {
+                accounts.get(accountNumber).replay(type, amount, timestamp);
+            }
+        });
+        enableLog(log);
+    }
+
+    // Stops reporting this manager's gauges; the log and ledger belong to the caller and stay open
+    @Override
+    public void close() {
+        Metrics.unregisterGauge("bank_accounts", accountsGauge);
+        Metrics.unregisterGauge("bank_customers", customersGauge);
     }
 }
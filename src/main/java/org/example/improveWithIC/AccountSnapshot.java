@@ -0,0 +1,325 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IInterest;
+import org.example.improveWithIC.interfaces.IOverdraft;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary checkpoint of customers, accounts, balances and behaviour config. Overdrafts are stored as a
+// fixed limit or as the name of their OverdraftPolicy segment, and interest as its kind and parameters, so a
+// restored account behaves exactly like the captured one. Each account also keeps its type and when it last accrued
+// interest, so a loan stays a loan and an interest run resumed after a restore skips accounts it already credited.
+// Version 1 files (fixed limits and flat rates only) and version 2 files (no type or accrual time) still load.
+// Writers are never stopped: each account is captured under its own lock together with the log position at that
+// instant, so on restore only log records at or after an account's own position are replayed onto it. An account
+// with a transfer credit that is logged but not yet applied is captured once the credit lands.
+public final class AccountSnapshot {
+    private static final int MAGIC = 0x41434b53; // "ACKS"
+    private static final int VERSION = 3;
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_2 = 2;
+    private static final AccountType[] TYPES = AccountType.values();
+    private static final byte HAS_OVERDRAFT = 1;
+    private static final byte HAS_INTEREST = 2;
+    private static final byte NONE = 0;
+    private static final byte FIXED_OVERDRAFT = 1;
+    private static final byte SEGMENT_OVERDRAFT = 2;
+    private static final byte FLAT_INTEREST = 1;
+    private static final byte COMPOUNDING_INTEREST = 2;
+    private static final byte TIERED_INTEREST = 3;
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private AccountSnapshot() {
+    }
+
+    public static void write(Collection<Customer> customers, TransactionLog log, Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            List<Customer> customerList = List.copyOf(customers);
+            out.writeInt(customerList.size());
+            for (Customer customer : customerList) {
+                List<IAccount> accounts = List.copyOf(customer.getAccounts());
+                writeString(out, customer.getName());
+                out.writeInt(accounts.size());
+                for (IAccount account : accounts) {
+                    writeAccount(out, AccountManager.managed(account), log);
+                }
+            }
+            out.flush();
+            // The rename must never become durable before the data it points at
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (FileChannel directory = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Returns the log position each restored account was captured at. Segment overdrafts are bound to policy,
+    // which may be null only if the snapshot has none.
+    public static Map<String, Long> load(Path file, Map<String, Customer> customers, Map<String, ? super BankAccount> accounts,
+                                         OverdraftPolicy policy) {
+        Map<String, Long> positions = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            Input in = new Input(channel);
+            int version;
+            if (in.getInt() != MAGIC || (version = in.getInt()) != VERSION && version != VERSION_2 && version != VERSION_1) {
+                throw new IllegalStateException("Not a supported account snapshot: " + file);
+            }
+            int customerCount = in.getInt();
+            for (int i = 0; i < customerCount; i++) {
+                Customer customer = customers.computeIfAbsent(readString(in), Customer::new);
+                int accountCount = in.getInt();
+                for (int j = 0; j < accountCount; j++) {
+                    String accountNumber = readString(in);
+                    double balance = in.getDouble();
+                    long position = in.getLong();
+                    BankAccount account;
+                    if (version == VERSION_1) {
+                        byte features = in.get();
+                        double overdraftLimit = in.getDouble();
+                        double interestRate = in.getDouble();
+                        account = new BankAccount(accountNumber, balance,
+                                (features & HAS_OVERDRAFT) != 0 ? new OverdraftProtection(overdraftLimit) : null,
+                                (features & HAS_INTEREST) != 0 ? new InterestBearing(interestRate) : null);
+                    } else {
+                        IOverdraft overdraft = readOverdraft(in, accountNumber, policy);
+                        IInterest interest = readInterest(in, accountNumber);
+                        // Version 2 has no type, so the account derives it from its behaviour
+                        AccountType type = version == VERSION ? readType(in, accountNumber) : null;
+                        account = new BankAccount(accountNumber, balance, overdraft, interest, type);
+                        if (version == VERSION) {
+                            account.restoreLastInterestAt(in.getLong());
+                        }
+                    }
+                    accounts.put(accountNumber, account);
+                    customer.addAccount(account);
+                    positions.put(accountNumber, position);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return positions;
+    }
+
+    private static void writeAccount(DataOutputStream out, BankAccount account, TransactionLog log) throws IOException {
+        double balance;
+        long position;
+        long lastInterestAt;
+        while (true) {
+            account.lock();
+            try {
+                // Position first: a transfer logged before it either shows as a pending credit or is in balance
+                position = log != null ? log.position() : 0;
+                if (!account.hasPendingCredits()) {
+                    balance = account.currentBalance();
+                    lastInterestAt = account.getLastInterestAt();
+                    break;
+                }
+            } finally {
+                account.unlock();
+            }
+            // The credit is durable but not applied yet, so neither replay nor balance would include it
+            Thread.yield();
+        }
+        writeString(out, account.getAccountNumber());
+        out.writeDouble(balance);
+        out.writeLong(position);
+        writeOverdraft(out, account);
+        writeInterest(out, account);
+        out.writeByte(account.getType().ordinal());
+        out.writeLong(lastInterestAt);
+    }
+
+    private static void writeOverdraft(DataOutputStream out, BankAccount account) throws IOException {
+        IOverdraft overdraft = account.getOverdraft();
+        if (overdraft == null) {
+            out.writeByte(NONE);
+        } else if (overdraft instanceof OverdraftProtection) {
+            out.writeByte(FIXED_OVERDRAFT);
+            out.writeDouble(overdraft.getOverdraftLimit());
+        } else if (overdraft instanceof SegmentOverdraft) {
+            out.writeByte(SEGMENT_OVERDRAFT);
+            writeString(out, ((SegmentOverdraft) overdraft).getSegment());
+        } else {
+            throw new IllegalStateException("Snapshots only support fixed and segment overdrafts, account "
+                    + account.getAccountNumber() + " uses " + overdraft.getClass().getSimpleName());
+        }
+    }
+
+    private static void writeInterest(DataOutputStream out, BankAccount account) throws IOException {
+        IInterest interest = account.getInterestCalculator();
+        if (interest == null) {
+            out.writeByte(NONE);
+        } else if (interest instanceof InterestBearing) {
+            out.writeByte(FLAT_INTEREST);
+            out.writeDouble(((InterestBearing) interest).getInterestRate());
+        } else if (interest instanceof CompoundingInterest) {
+            CompoundingInterest compounding = (CompoundingInterest) interest;
+            out.writeByte(COMPOUNDING_INTEREST);
+            out.writeDouble(compounding.getAnnualRate());
+            out.writeInt(compounding.getCompoundingsPerYear());
+            out.writeDouble(compounding.getPeriodFactor());
+        } else if (interest instanceof TieredInterest) {
+            double[] thresholds = ((TieredInterest) interest).getThresholds();
+            double[] rates = ((TieredInterest) interest).getRates();
+            out.writeByte(TIERED_INTEREST);
+            out.writeInt(thresholds.length);
+            for (int i = 0; i < thresholds.length; i++) {
+                out.writeDouble(thresholds[i]);
+                out.writeDouble(rates[i]);
+            }
+        } else {
+            throw new IllegalStateException("Snapshots only support flat, compounding and tiered interest, account "
+                    + account.getAccountNumber() + " uses " + interest.getClass().getSimpleName());
+        }
+    }
+
+    private static IOverdraft readOverdraft(Input in, String accountNumber, OverdraftPolicy policy) throws IOException {
+        byte kind = in.get();
+        switch (kind) {
+            case NONE:
+                return null;
+            case FIXED_OVERDRAFT:
+                return new OverdraftProtection(in.getDouble());
+            case SEGMENT_OVERDRAFT:
+                String segment = readString(in);
+                if (policy == null) {
+                    throw new IllegalStateException("Account " + accountNumber + " uses overdraft segment " + segment
+                            + " but no OverdraftPolicy was given to restore it");
+                }
+                return policy.forSegment(segment);
+            default:
+                throw new IllegalStateException("Unknown overdraft kind " + kind + " for account " + accountNumber);
+        }
+    }
+
+    private static IInterest readInterest(Input in, String accountNumber) throws IOException {
+        byte kind = in.get();
+        switch (kind) {
+            case NONE:
+                return null;
+            case FLAT_INTEREST:
+                return new InterestBearing(in.getDouble());
+            case COMPOUNDING_INTEREST:
+                return new CompoundingInterest(in.getDouble(), in.getInt(), in.getDouble());
+            case TIERED_INTEREST:
+                double[] thresholds = new double[in.getInt()];
+                double[] rates = new double[thresholds.length];
+                for (int i = 0; i < thresholds.length; i++) {
+                    thresholds[i] = in.getDouble();
+                    rates[i] = in.getDouble();
+                }
+                return new TieredInterest(thresholds, rates);
+            default:
+                throw new IllegalStateException("Unknown interest kind " + kind + " for account " + accountNumber);
+        }
+    }
+
+    private static AccountType readType(Input in, String accountNumber) throws IOException {
+        byte code = in.get();
+        if (code < 0 || code >= TYPES.length) {
+            throw new IllegalStateException("Unknown account type " + code + " for account " + accountNumber);
+        }
+        return TYPES[code];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(Input in) throws IOException {
+        byte[] bytes = new byte[in.getShort() & 0xffff];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Reads the file through a sliding read-only mapping of at most WINDOW_SIZE bytes, so snapshots of any size load
+    // without one mapping per file. A value that would straddle the window end makes the window move up to it.
+    private static final class Input {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        short getShort() throws IOException {
+            ensure(Short.BYTES);
+            return window.getShort();
+        }
+
+        long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        double getDouble() throws IOException {
+            ensure(Double.BYTES);
+            return window.getDouble();
+        }
+
+        byte get() throws IOException {
+            ensure(1);
+            return window.get();
+        }
+
+        void get(byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            window.get(bytes);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                map(windowStart + window.position());
+                if (window.remaining() < bytes) {
+                    throw new EOFException("Account snapshot is truncated");
+                }
+            }
+        }
+
+        private void map(long start) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+            windowStart = start;
+        }
+    }
+}
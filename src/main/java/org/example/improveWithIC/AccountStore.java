@@ -0,0 +1,265 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+// Accounts kept column by column in parallel primitive arrays and addressed by a dense int id, for books too large
+// to hold one BankAccount object per account. Scans walk the arrays sequentially; IAccount is offered as a
+// flyweight view over an id. Ids are grouped in blocks of 4096 and each block shares one lock, so a scan takes one
+// uncontended lock per block while single-account updates still rarely meet each other.
+// The store keeps no per-account history. With a TransactionLog enabled, every deposit, withdrawal and interest credit
+// is logged and durable before its balance is visible, so the log is the audit trail; account creation and opening
+// balances are not logged.
+public class AccountStore {
+    static final byte HAS_OVERDRAFT = 1;
+    static final byte HAS_INTEREST = 2;
+    private static final int BLOCK_SHIFT = 12;
+    private static final String PREFIX = "ACC";
+    private static final int SPINS_BEFORE_YIELD = 100;
+
+    private final long[] numbers;
+    private final double[] balances;
+    private final double[] overdraftLimits;
+    private final double[] interestRates;
+    private final byte[] features;
+    private final ReentrantLock[] blockLocks;
+    // Ids are reserved first; size only moves past an id, in id order, once its row is completely written
+    private final AtomicInteger reserved = new AtomicInteger();
+    private volatile int size;
+    private final SnowflakeAccountNumberGenerator numberGenerator;
+    private volatile TransactionLog log;
+
+    public AccountStore(int capacity) {
+        this(capacity, new SnowflakeAccountNumberGenerator());
+    }
+
+    public AccountStore(int capacity, SnowflakeAccountNumberGenerator numberGenerator) {
+        this.numbers = new long[capacity];
+        this.balances = new double[capacity];
+        this.overdraftLimits = new double[capacity];
+        this.interestRates = new double[capacity];
+        this.features = new byte[capacity];
+        this.blockLocks = new ReentrantLock[(capacity >>> BLOCK_SHIFT) + 1];
+        this.numberGenerator = numberGenerator;
+        for (int i = 0; i < blockLocks.length; i++) {
+            blockLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // Same account types and meaning of additionalInfo as AccountFactory, and an unknown type throws the same way;
+    // returns the new account's id
+    public int create(String type, double initialBalance, double additionalInfo) {
+        AccountType accountType = AccountType.of(type);
+        int id = reserved.getAndIncrement();
+        if (id >= balances.length) {
+            reserved.decrementAndGet();
+            throw new IllegalStateException("Account store is full at " + balances.length + " accounts");
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            numbers[id] = numberGenerator.nextId();
+            balances[id] = initialBalance;
+            switch (accountType) {
+                case CHECKING:
+                    features[id] = HAS_OVERDRAFT;
+                    overdraftLimits[id] = additionalInfo;
+                    break;
+                case SAVINGS:
+                case LOAN:
+                    features[id] = HAS_INTEREST;
+                    interestRates[id] = additionalInfo;
+                    break;
+                default:
+                    features[id] = 0;
+            }
+        } finally {
+            lock.unlock();
+            // Even a failed row is published, or every later id would wait for it forever
+            publish(id);
+        }
+        Metrics.increment(Metrics.ACCOUNTS_CREATED);
+        return id;
+    }
+
+    // Logs every later balance change; the block lock is held while a change waits to become durable
+    public void enableLog(TransactionLog log) {
+        this.log = log;
+    }
+
+    public IAccount view(int id) {
+        checkId(id);
+        return new StoreAccount(this, id);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void deposit(int id, double amount) {
+        checkId(id);
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            logDurably(TransactionLog.DEPOSIT, id, amount);
+            balances[id] += amount;
+            Metrics.increment(Metrics.DEPOSITS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public WithdrawalResult withdraw(int id, double amount) {
+        checkId(id);
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            double balance = balances[id];
+            boolean overdraft = (features[id] & HAS_OVERDRAFT) != 0;
+            if (overdraft && balance + overdraftLimits[id] >= amount || balance >= amount) {
+                logDurably(TransactionLog.WITHDRAWAL, id, amount);
+                balances[id] = balance - amount;
+                Metrics.increment(Metrics.WITHDRAWALS);
+                return balance - amount < 0 ? WithdrawalResult.OVERDRAWN : WithdrawalResult.COMPLETED;
+            }
+            WithdrawalResult result = overdraft ? WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED : WithdrawalResult.INSUFFICIENT_FUNDS;
+            Metrics.increment(Metrics.REJECTED_WITHDRAWALS);
+            RejectionEvents.publish(getAccountNumber(id), amount, balance, result);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getBalance(int id) {
+        checkId(id);
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            return balances[id];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getAccountNumber(int id) {
+        checkId(id);
+        return PREFIX + numbers[id];
+    }
+
+    // Credits one period of interest to every interest-bearing account, block by block in parallel.
+    // With a log, a block's credits are all appended first and share one wait for durability.
+    public void accrueInterest() {
+        TransactionLog currentLog = log;
+        forEachBlock(block -> {
+            int from = block << BLOCK_SHIFT;
+            int to = Math.min(from + (1 << BLOCK_SHIFT), size());
+            int credited = 0;
+            if (currentLog != null) {
+                long position = 0;
+                long timestamp = LedgerClock.now();
+                for (int id = from; id < to; id++) {
+                    if ((features[id] & HAS_INTEREST) != 0) {
+                        position = currentLog.append(TransactionLog.INTEREST, getAccountNumber(id),
+                                balances[id] * interestRates[id], timestamp);
+                    }
+                }
+                currentLog.awaitDurable(position);
+            }
+            for (int id = from; id < to; id++) {
+                if ((features[id] & HAS_INTEREST) != 0) {
+                    balances[id] += balances[id] * interestRates[id];
+                    credited++;
+                }
+            }
+            if (Metrics.ENABLED) {
+                Metrics.INTEREST_POSTINGS.add(credited);
+            }
+        });
+    }
+
+    public double totalBalance() {
+        double[] totals = new double[blockCount()];
+        forEachBlock(block -> {
+            int from = block << BLOCK_SHIFT;
+            int to = Math.min(from + (1 << BLOCK_SHIFT), size());
+            double total = 0;
+            for (int id = from; id < to; id++) {
+                total += balances[id];
+            }
+            totals[block] = total;
+        });
+        return Arrays.stream(totals).sum();
+    }
+
+    // Ids of accounts below zero, in id order
+    public int[] findOverdrawn() {
+        int[][] matches = new int[blockCount()][];
+        forEachBlock(block -> {
+            int from = block << BLOCK_SHIFT;
+            int to = Math.min(from + (1 << BLOCK_SHIFT), size());
+            int[] found = new int[to - from];
+            int count = 0;
+            for (int id = from; id < to; id++) {
+                if (balances[id] < 0) {
+                    found[count++] = id;
+                }
+            }
+            matches[block] = Arrays.copyOf(found, count);
+        });
+        return Arrays.stream(matches).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    private void publish(int id) {
+        for (int spins = 0; size != id; spins++) {
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        size = id + 1;
+    }
+
+    // Callers hold the block lock
+    private void logDurably(byte type, int id, double amount) {
+        TransactionLog currentLog = log;
+        if (currentLog != null) {
+            currentLog.awaitDurable(currentLog.append(type, getAccountNumber(id), amount, LedgerClock.now()));
+        }
+    }
+
+    private void forEachBlock(BlockAction action) {
+        IntStream.range(0, blockCount()).parallel().forEach(block -> {
+            ReentrantLock lock = blockLocks[block];
+            lock.lock();
+            try {
+                action.run(block);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int blockCount() {
+        return (size() + (1 << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT;
+    }
+
+    private ReentrantLock lockFor(int id) {
+        return blockLocks[id >>> BLOCK_SHIFT];
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size()) {
+            throw new IndexOutOfBoundsException("No account with id " + id);
+        }
+    }
+
+    private interface BlockAction {
+        void run(int block);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccountProduct;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The built-in types behind the original createAccount(type, ..., additionalInfo) calls, where additionalInfo is
+// the overdraft limit for checking accounts and the interest rate for savings and loans
+public enum AccountType {
+    CHECKING("checking"),
+    SAVINGS("savings"),
+    LOAN("loan"),
+    BASIC("basic");
+
+    private static final Map<String, AccountType> BY_NAME = new HashMap<>();
+
+    static {
+        for (AccountType type : values()) {
+            BY_NAME.put(type.name, type);
+        }
+    }
+
+    private final String name;
+
+    AccountType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static AccountType of(String name) {
+        AccountType type = BY_NAME.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown account type: " + name);
+        }
+        return type;
+    }
+
+    IAccountProduct product(double additionalInfo, OverdraftPolicy overdraftPolicy) {
+        switch (this) {
+            case CHECKING:
+                return overdraftPolicy != null
+                        ? new CheckingProduct(overdraftPolicy, OverdraftPolicy.STANDARD) : new CheckingProduct(additionalInfo);
+            case SAVINGS:
+                return new InterestProduct(additionalInfo);
+            case LOAN:
+                return (accountNumber, initialBalance) ->
+                        new BankAccount(accountNumber, initialBalance, null, new InterestBearing(additionalInfo), LOAN);
+            default:
+                return (accountNumber, initialBalance) -> new BankAccount(accountNumber, initialBalance, null, null);
+        }
+    }
+}
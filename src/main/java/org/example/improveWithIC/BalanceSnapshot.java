@@ -0,0 +1,20 @@
+package org.example.improveWithIC;
+
+public class BalanceSnapshot {
+    private final double balance;
+    private final long lastTransactionAt;
+
+    public BalanceSnapshot(double balance, long lastTransactionAt) {
+        this.balance = balance;
+        this.lastTransactionAt = lastTransactionAt;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+
+    // Epoch millis of the last posting, or 0 if the account has none
+    public long getLastTransactionAt() {
+        return lastTransactionAt;
+    }
+}
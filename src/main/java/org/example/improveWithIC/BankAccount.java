@@ -4,54 +4,392 @@ import org.example.improveWithIC.interfaces.IAccount;
 import org.example.improveWithIC.interfaces.IInterest;
 import org.example.improveWithIC.interfaces.IOverdraft;
 
-import java.util.ArrayList;
-import java.util.Date;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public class BankAccount implements IAccount {
     private String accountNumber;
     private double balance;
-    private List<Transaction> transactions = new ArrayList<>();
+    private long lastTransactionAt;
+    // Seqlock over balance and lastTransactionAt: writers, already holding the account lock, make it odd while they
+    // update the pair; readers take no lock and retry until they see the same even version before and after.
+    private volatile long balanceVersion;
+    private TransactionJournal transactions = new TransactionJournal();
     private IOverdraft overdraft;
     private IInterest interestCalculator;
+    // Declared type, or null to derive it from the behaviour; only a loan cannot be told apart by behaviour alone
+    private AccountType type;
+    private TransactionLog log;
+    private byte[] logAccountNumber;
+    private long lastInterestAt;
+    private AccountAggregates aggregates;
+    private Customer owner;
+    // This account's share of the owner's overdraft headroom, and the policy version it was computed under
+    private double headroom;
+    private long headroomVersion;
+    // Transfer credits already logged (together with their debit) but not yet applied by transferIn
+    private final AtomicInteger pendingCredits = new AtomicInteger();
+    // One lock per account: updates to different accounts never contend with each other.
+    private final ReentrantLock lock = new ReentrantLock();
 
     public BankAccount(String accountNumber, double balance, IOverdraft overdraft, IInterest interestCalculator) {
         this.accountNumber = accountNumber;
         this.balance = balance;
         this.overdraft = overdraft;
         this.interestCalculator = interestCalculator;
+        this.aggregates = new AccountAggregates(balance);
+    }
+
+    BankAccount(String accountNumber, double balance, IOverdraft overdraft, IInterest interestCalculator, AccountType type) {
+        this(accountNumber, balance, overdraft, interestCalculator);
+        this.type = type;
     }
 
     @Override
     public void deposit(double amount) {
-        balance += amount;
-        transactions.add(new Transaction("deposit", amount, new Date(), "Deposit made"));
+        lock.lock();
+        try {
+            post(TransactionLog.DEPOSIT, "deposit", amount, "Deposit made");
+            Metrics.increment(Metrics.DEPOSITS);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public void withdraw(double amount) {
-        if (overdraft != null && overdraft.canWithdraw(amount, balance)) {
-            balance -= amount;
-            transactions.add(new Transaction("withdrawal", amount, new Date(), "Withdrawal with overdraft"));
-        } else if (balance >= amount) {
-            balance -= amount;
-            transactions.add(new Transaction("withdrawal", amount, new Date(), "Withdrawal made"));
-        } else {
-            System.out.println("Insufficient funds");
+    public WithdrawalResult withdraw(double amount) {
+        return debit(amount, null);
+    }
+
+    // First leg of a transfer: debits this account and logs the debit and to's credit as one pair, so recovery
+    // applies both or neither. When the result is completed the caller must apply the credit with to.transferIn.
+    WithdrawalResult transferOut(BankAccount to, double amount) {
+        return debit(amount, to);
+    }
+
+    // Second leg of a transfer: applies a credit that transferOut has already made durable
+    void transferIn(double amount) {
+        lock.lock();
+        try {
+            apply(TransactionLog.DEPOSIT, "deposit", amount, "Deposit made", LedgerClock.now());
+            Metrics.increment(Metrics.DEPOSITS);
+        } finally {
+            pendingCredits.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    private WithdrawalResult debit(double amount, BankAccount creditTo) {
+        lock.lock();
+        try {
+            if (hasOverdraftFor(amount)) {
+                postDebit(amount, "Withdrawal with overdraft", creditTo);
+                Metrics.increment(Metrics.WITHDRAWALS);
+                return balance < 0 ? WithdrawalResult.OVERDRAWN : WithdrawalResult.COMPLETED;
+            } else if (balance >= amount) {
+                postDebit(amount, "Withdrawal made", creditTo);
+                Metrics.increment(Metrics.WITHDRAWALS);
+                return WithdrawalResult.COMPLETED;
+            }
+            WithdrawalResult result = overdraft != null
+                    ? WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED : WithdrawalResult.INSUFFICIENT_FUNDS;
+            Metrics.increment(Metrics.REJECTED_WITHDRAWALS);
+            RejectionEvents.publish(accountNumber, amount, balance, result);
+            return result;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void calculateInterest() {
         if (interestCalculator != null) {
-            double interest = interestCalculator.calculateInterest(balance);
-            deposit(interest);
-            transactions.add(new Transaction("interest", interest, new Date(), "Interest credited"));
+            lock.lock();
+            try {
+                postInterest(interestCalculator.calculateInterest(balance));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public double getBalance() {
+        while (true) {
+            long version = balanceVersion;
+            double current = balance;
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && balanceVersion == version) {
+                return current;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Balance and time of the last posting, read together without locking
+    public BalanceSnapshot readBalance() {
+        while (true) {
+            long version = balanceVersion;
+            double current = balance;
+            long postedAt = lastTransactionAt;
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && balanceVersion == version) {
+                return new BalanceSnapshot(current, postedAt);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public Statement getLifetimeStatement() {
+        lock.lock();
+        try {
+            return aggregates.lifetime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Statement getDailyStatement(LocalDate day) {
+        lock.lock();
+        try {
+            return aggregates.day(day);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Statement getMonthlyStatement(YearMonth month) {
+        lock.lock();
+        try {
+            return aggregates.month(month);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public List<Transaction> getTransactionHistory() {
-        return transactions;
+        return transactions.view();
+    }
+
+    @Override
+    public Stream<Transaction> queryHistory(HistoryQuery query) {
+        return transactions.query(query);
+    }
+
+    // Accrues at most once per run, so a resumed run skips accounts it already credited. interest was computed in a
+    // batch from balanceSeen; if the balance has moved since, it is recomputed here under the lock.
+    boolean accrueInterestSince(long runStartedAt, double balanceSeen, double interest) {
+        lock.lock();
+        try {
+            if (interestCalculator == null || lastInterestAt >= runStartedAt) {
+                return false;
+            }
+            postInterest(balance == balanceSeen ? interest : interestCalculator.calculateInterest(balance));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isInterestBearing() {
+        return interestCalculator != null;
+    }
+
+    void attachLog(TransactionLog log) {
+        lock.lock();
+        try {
+            this.log = log;
+            this.logAccountNumber = TransactionLog.encodeAccountNumber(accountNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void attachOwner(Customer owner) {
+        lock.lock();
+        try {
+            this.owner = owner;
+            if (overdraft != null) {
+                overdraft.balanceChanged(this, 0, balance);
+            }
+            owner.balanceChanged(this, Double.NaN, balance);
+            updateHeadroom();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Re-applies a logged change on startup: no limit checks and no re-logging
+    void replay(byte type, double amount, long timestamp) {
+        lock.lock();
+        try {
+            if (type == TransactionLog.WITHDRAWAL) {
+                publish(balance - amount, timestamp);
+                transactions.append("withdrawal", amount, timestamp, "Replayed from log");
+                aggregates.record(type, amount, balance, timestamp);
+                notifyOwner(balance + amount);
+            } else {
+                publish(balance + amount, timestamp);
+                if (type == TransactionLog.INTEREST) {
+                    lastInterestAt = Math.max(lastInterestAt, timestamp);
+                }
+                transactions.append(type == TransactionLog.INTEREST ? "interest" : "deposit", amount, timestamp, "Replayed from log");
+                aggregates.record(type, amount, balance, timestamp);
+                notifyOwner(balance - amount);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Brings the owner's headroom up to date after the overdraft policy was repriced
+    void refreshHeadroom() {
+        if (overdraft == null || overdraft.getPolicyVersion() == headroomVersion) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (owner != null) {
+                updateHeadroom();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers must hold the account lock
+    double currentBalance() {
+        return balance;
+    }
+
+    // Callers must hold the account lock
+    long getLastInterestAt() {
+        return lastInterestAt;
+    }
+
+    // Restores when the account last accrued, so a resumed interest run recognises it as already credited
+    void restoreLastInterestAt(long lastInterestAt) {
+        lock.lock();
+        try {
+            this.lastInterestAt = Math.max(this.lastInterestAt, lastInterestAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Non-zero while a durable transfer credit has not reached balance yet
+    boolean hasPendingCredits() {
+        return pendingCredits.get() != 0;
+    }
+
+    IOverdraft getOverdraft() {
+        return overdraft;
+    }
+
+    IInterest getInterestCalculator() {
+        return interestCalculator;
+    }
+
+    AccountType getType() {
+        if (type != null) {
+            return type;
+        }
+        return overdraft != null ? AccountType.CHECKING : interestCalculator != null ? AccountType.SAVINGS : AccountType.BASIC;
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    private void postInterest(double interest) {
+        lastInterestAt = post(TransactionLog.INTEREST, "interest", interest, "Interest credited");
+        Metrics.increment(Metrics.INTEREST_POSTINGS);
+    }
+
+    private long post(byte logType, String type, double amount, String description) {
+        long timestamp = LedgerClock.now();
+        // Durable before visible: no reader may see a balance that a crash could still take back
+        if (log != null) {
+            log.awaitDurable(log.append(logType, logAccountNumber, amount, timestamp));
+        }
+        apply(logType, type, amount, description, timestamp);
+        return timestamp;
+    }
+
+    private void postDebit(double amount, String description, BankAccount creditTo) {
+        if (creditTo == null) {
+            post(TransactionLog.WITHDRAWAL, "withdrawal", amount, description);
+            return;
+        }
+        long timestamp = LedgerClock.now();
+        // Counted before the pair is logged, so a checkpoint that sees the pair's position also sees the credit
+        // as pending and waits for it rather than capturing creditTo's balance without it
+        creditTo.pendingCredits.incrementAndGet();
+        boolean logged = false;
+        try {
+            if (log != null) {
+                byte[] creditNumber = creditTo.logAccountNumber != null
+                        ? creditTo.logAccountNumber : TransactionLog.encodeAccountNumber(creditTo.accountNumber);
+                log.awaitDurable(log.appendTransfer(logAccountNumber, creditNumber, amount, timestamp));
+            }
+            logged = true;
+        } finally {
+            if (!logged) {
+                creditTo.pendingCredits.decrementAndGet();
+            }
+        }
+        apply(TransactionLog.WITHDRAWAL, "withdrawal", amount, description, timestamp);
+    }
+
+    // Callers must hold the account lock
+    private void apply(byte logType, String type, double amount, String description, long timestamp) {
+        publish(logType == TransactionLog.WITHDRAWAL ? balance - amount : balance + amount, timestamp);
+        transactions.append(type, amount, timestamp, description);
+        aggregates.record(logType, amount, balance, timestamp);
+        notifyOwner(logType == TransactionLog.WITHDRAWAL ? balance + amount : balance - amount);
+    }
+
+    // Callers must hold the account lock
+    private void publish(double newBalance, long timestamp) {
+        long version = balanceVersion;
+        balanceVersion = version + 1;
+        VarHandle.storeStoreFence();
+        balance = newBalance;
+        lastTransactionAt = timestamp;
+        balanceVersion = version + 2;
+    }
+
+    private void notifyOwner(double oldBalance) {
+        if (overdraft != null) {
+            overdraft.balanceChanged(this, oldBalance, balance);
+        }
+        if (owner != null) {
+            owner.balanceChanged(this, oldBalance, balance);
+            updateHeadroom();
+        }
+    }
+
+    private void updateHeadroom() {
+        if (overdraft != null) {
+            // Version first: if the policy moves in between, the next refresh simply recomputes
+            headroomVersion = overdraft.getPolicyVersion();
+            double updated = Math.max(0, overdraft.getOverdraftLimit() + Math.min(balance, 0));
+            owner.headroomChanged(headroom, updated);
+            headroom = updated;
+        }
+    }
+
+    private boolean hasOverdraftFor(double amount) {
+        return overdraft != null && overdraft.canWithdraw(amount, balance);
     }
 
     public String getAccountNumber() {
@@ -0,0 +1,240 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IInterest;
+import org.example.improveWithIC.interfaces.IOverdraft;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+
+// Writes a book in the formats BookImporter reads. Without a transactions file each account is exported with its
+// current balance. With one, accounts carry their opening balance and the transactions file carries the history,
+// so importing both rebuilds the same balances, histories and statements. Each account is read under its own lock.
+// A checking account bound to an OverdraftPolicy segment is exported with the segment name, so the import binds it to
+// the policy again; its additionalInfo then only records the limit at export time. Compounding and tiered interest do
+// not fit in additionalInfo and are exported as their kind and parameters, like in AccountSnapshot.
+public final class BookExporter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private BookExporter() {
+    }
+
+    public static long export(Collection<Customer> customers, Path accountsFile, Path transactionsFile, BookFormat format) {
+        long count = 0;
+        try (FileChannel accountsOut = FileChannel.open(accountsFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             TransactionSink transactions = transactionsFile != null ? new TransactionSink(transactionsFile, format) : null) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            if (format == BookFormat.CSV) {
+                putLine(accountsOut, buffer, BookImporter.ACCOUNTS_HEADER);
+            } else {
+                buffer.putInt(BookImporter.MAGIC).putInt(BookImporter.VERSION);
+            }
+            for (Customer customer : List.copyOf(customers)) {
+                for (IAccount account : customer.getAccounts()) {
+                    writeAccount(accountsOut, buffer, customer.getName(), AccountManager.managed(account), transactions, format);
+                    count++;
+                }
+            }
+            drain(accountsOut, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private static void writeAccount(FileChannel out, ByteBuffer buffer, String customer, BankAccount account,
+                                     TransactionSink transactions, BookFormat format) throws IOException {
+        IOverdraft overdraft = account.getOverdraft();
+        IInterest interest = account.getInterestCalculator();
+        double additionalInfo = 0;
+        String segment = "";
+        if (overdraft != null && interest != null) {
+            throw new IllegalStateException("Account " + account.getAccountNumber() + " has both overdraft and interest");
+        } else if (overdraft != null) {
+            if (overdraft instanceof SegmentOverdraft) {
+                segment = ((SegmentOverdraft) overdraft).getSegment();
+            } else if (!(overdraft instanceof OverdraftProtection)) {
+                throw new IllegalStateException("Only fixed and segment overdrafts can be exported, account "
+                        + account.getAccountNumber() + " uses " + overdraft.getClass().getSimpleName());
+            }
+            additionalInfo = overdraft.getOverdraftLimit();
+        } else if (interest instanceof InterestBearing) {
+            additionalInfo = ((InterestBearing) interest).getInterestRate();
+        } else if (interest != null && !(interest instanceof CompoundingInterest) && !(interest instanceof TieredInterest)) {
+            throw new IllegalStateException("Only flat, compounding and tiered interest can be exported, account "
+                    + account.getAccountNumber() + " uses " + interest.getClass().getSimpleName());
+        }
+        AccountType type = account.getType();
+
+        double balance;
+        List<Transaction> history = null;
+        account.lock();
+        try {
+            if (transactions != null) {
+                balance = account.getLifetimeStatement().getOpeningBalance();
+                history = account.getTransactionHistory();
+            } else {
+                balance = account.currentBalance();
+            }
+        } finally {
+            account.unlock();
+        }
+
+        if (format == BookFormat.CSV) {
+            putLine(out, buffer, checked(customer) + ',' + checked(account.getAccountNumber()) + ',' + type.getName() + ','
+                    + balance + ',' + additionalInfo + ',' + checked(segment) + ',' + interestTerms(interest));
+        } else {
+            byte[] customerBytes = checkedBytes(customer);
+            byte[] numberBytes = checkedBytes(account.getAccountNumber());
+            byte[] segmentBytes = checkedBytes(segment);
+            ensure(out, buffer, 6 + customerBytes.length + numberBytes.length + segmentBytes.length + 17);
+            buffer.putShort((short) customerBytes.length).put(customerBytes);
+            buffer.putShort((short) numberBytes.length).put(numberBytes);
+            buffer.put((byte) type.ordinal()).putDouble(balance).putDouble(additionalInfo);
+            buffer.putShort((short) segmentBytes.length).put(segmentBytes);
+            putInterest(out, buffer, interest);
+        }
+        if (history != null) {
+            for (Transaction transaction : history) {
+                transactions.write(account.getAccountNumber(), transaction);
+            }
+        }
+    }
+
+    // "compounding <annualRate> <compoundingsPerYear> <periodFactor>" or "tiered <threshold>:<rate> ...";
+    // empty for flat or no interest, which additionalInfo already covers
+    private static String interestTerms(IInterest interest) {
+        if (interest instanceof CompoundingInterest) {
+            CompoundingInterest compounding = (CompoundingInterest) interest;
+            return "compounding " + compounding.getAnnualRate() + ' ' + compounding.getCompoundingsPerYear() + ' '
+                    + compounding.getPeriodFactor();
+        } else if (interest instanceof TieredInterest) {
+            double[] thresholds = ((TieredInterest) interest).getThresholds();
+            double[] rates = ((TieredInterest) interest).getRates();
+            StringBuilder terms = new StringBuilder("tiered");
+            for (int i = 0; i < thresholds.length; i++) {
+                terms.append(' ').append(thresholds[i]).append(':').append(rates[i]);
+            }
+            return terms.toString();
+        }
+        return "";
+    }
+
+    private static void putInterest(FileChannel out, ByteBuffer buffer, IInterest interest) throws IOException {
+        if (interest instanceof CompoundingInterest) {
+            CompoundingInterest compounding = (CompoundingInterest) interest;
+            ensure(out, buffer, 21);
+            buffer.put(BookImporter.COMPOUNDING_INTEREST).putDouble(compounding.getAnnualRate())
+                    .putInt(compounding.getCompoundingsPerYear()).putDouble(compounding.getPeriodFactor());
+        } else if (interest instanceof TieredInterest) {
+            double[] thresholds = ((TieredInterest) interest).getThresholds();
+            double[] rates = ((TieredInterest) interest).getRates();
+            ensure(out, buffer, 5 + 16 * thresholds.length);
+            buffer.put(BookImporter.TIERED_INTEREST).putInt(thresholds.length);
+            for (int i = 0; i < thresholds.length; i++) {
+                buffer.putDouble(thresholds[i]).putDouble(rates[i]);
+            }
+        } else {
+            ensure(out, buffer, 1);
+            buffer.put(BookImporter.PLAIN_INTEREST);
+        }
+    }
+
+    private static String checked(String field) {
+        if (field.indexOf(',') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0 || field.length() > 0xffff) {
+            throw new IllegalStateException("Cannot export field to CSV: " + field);
+        }
+        return field;
+    }
+
+    // Binary strings carry an unsigned short length
+    private static byte[] checkedBytes(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xffff) {
+            throw new IllegalStateException("Cannot export field longer than 65535 bytes: " + field);
+        }
+        return bytes;
+    }
+
+    private static void putLine(FileChannel out, ByteBuffer buffer, String line) throws IOException {
+        byte[] bytes = (line + '\n').getBytes(StandardCharsets.UTF_8);
+        ensure(out, buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void ensure(FileChannel out, ByteBuffer buffer, int n) throws IOException {
+        if (buffer.remaining() < n) {
+            drain(out, buffer);
+        }
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte transactionType(String type) {
+        switch (type) {
+            case "withdrawal":
+                return TransactionLog.WITHDRAWAL;
+            case "interest":
+                return TransactionLog.INTEREST;
+            default:
+                return TransactionLog.DEPOSIT;
+        }
+    }
+
+    // Binary transactions are records in TransactionLog's format, so BookImporter reads them with TransactionLog.read.
+    // They go through the same buffered channel as CSV lines: a TransactionLog would preallocate a whole segment
+    // and start a flusher thread for what is a one-off sequential write.
+    private static final class TransactionSink implements AutoCloseable {
+        private final BookFormat format;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final TransactionLog.RecordEncoder encoder = new TransactionLog.RecordEncoder();
+        // An account's transactions are written together, so its number is encoded once for all of them
+        private String accountNumber;
+        private byte[] encodedAccountNumber;
+
+        TransactionSink(Path file, BookFormat format) throws IOException {
+            this.format = format;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            if (format == BookFormat.CSV) {
+                putLine(channel, buffer, BookImporter.TRANSACTIONS_HEADER);
+            }
+        }
+
+        void write(String accountNumber, Transaction transaction) throws IOException {
+            if (format == BookFormat.CSV) {
+                putLine(channel, buffer, accountNumber + ',' + transaction.getType() + ',' + transaction.getAmount() + ','
+                        + transaction.getDate().getTime());
+            } else {
+                if (!accountNumber.equals(this.accountNumber)) {
+                    encodedAccountNumber = TransactionLog.encodeAccountNumber(accountNumber);
+                    this.accountNumber = accountNumber;
+                }
+                ensure(channel, buffer, TransactionLog.RECORD_SIZE);
+                buffer.put(encoder.encode(transactionType(transaction.getType()), encodedAccountNumber,
+                        transaction.getAmount(), transaction.getDate().getTime()));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain(channel, buffer);
+            channel.close();
+        }
+    }
+}
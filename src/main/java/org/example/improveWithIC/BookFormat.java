@@ -0,0 +1,11 @@
+package org.example.improveWithIC;
+
+// File formats for bulk import and export of a book (see BookImporter and BookExporter).
+// CSV: accounts are "customer,accountNumber,type,balance,additionalInfo,segment" and transactions are
+// "accountNumber,type,amount,timestampMillis", one per line after a header, UTF-8, without quoting. segment names the
+// OverdraftPolicy segment of a checking account and is empty (or, in older files, missing) for a fixed limit.
+// BINARY: accounts are length-prefixed records after a magic header; transactions use the TransactionLog format.
+public enum BookFormat {
+    CSV,
+    BINARY
+}
@@ -0,0 +1,511 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IInterest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+// Streams a book into an AccountManager. Files are read sequentially through one reusable buffer and parsed in
+// place: numbers and account types are decoded straight from the bytes, so only the customer name and account
+// number of each account become Strings. Parsed accounts are handed to the fork-join pool in batches, with a
+// bounded number of batches in flight so a huge file never sits in memory at once.
+// Transactions are applied on the calling thread, in file order, on top of the imported balances. They are applied
+// as replayed history, not logged, so they can only be imported before the manager's transaction log is enabled.
+public final class BookImporter {
+    static final int MAGIC = 0x4143424b; // "ACBK"
+    static final int VERSION = 3;
+    // Version 1 account records have no segment, version 2 records no interest terms
+    static final int VERSION_1 = 1;
+    static final int VERSION_2 = 2;
+    // Interest terms of a binary account record: plain means none or the flat rate in additionalInfo
+    static final byte PLAIN_INTEREST = 0;
+    static final byte COMPOUNDING_INTEREST = 1;
+    static final byte TIERED_INTEREST = 2;
+    static final String ACCOUNTS_HEADER = "customer,accountNumber,type,balance,additionalInfo,segment,interest";
+    static final String TRANSACTIONS_HEADER = "accountNumber,type,amount,timestampMillis";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int BATCH_SIZE = 4096;
+    private static final AccountType[] TYPES = AccountType.values();
+    private static final byte[][] TYPE_NAMES = new byte[TYPES.length][];
+    private static final byte[][] TRANSACTION_TYPES = {
+            "deposit".getBytes(StandardCharsets.US_ASCII),
+            "withdrawal".getBytes(StandardCharsets.US_ASCII),
+            "interest".getBytes(StandardCharsets.US_ASCII)};
+    // Powers of ten that are exact doubles; a mantissa below 2^53 scaled by one of them rounds correctly
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        for (int i = 0; i < TYPES.length; i++) {
+            TYPE_NAMES[i] = TYPES[i].getName().getBytes(StandardCharsets.US_ASCII);
+        }
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private BookImporter() {
+    }
+
+    public static long importAccounts(AccountManager manager, Path file, BookFormat format) {
+        AccountBatches batches = new AccountBatches(manager, ForkJoinPool.commonPool());
+        try (FileChannel channel = FileChannel.open(file)) {
+            if (format == BookFormat.CSV) {
+                int[] fields = new int[14];
+                readLines(channel, ACCOUNTS_HEADER, (bytes, from, to, line) -> {
+                    int count = split(bytes, from, to, fields, 5, line);
+                    batches.add(string(bytes, fields[0], fields[1]), string(bytes, fields[2], fields[3]),
+                            accountType(bytes, fields[4], fields[5], line),
+                            parseDouble(bytes, fields[6], fields[7]), parseDouble(bytes, fields[8], fields[9]),
+                            count >= 6 && fields[11] > fields[10] ? string(bytes, fields[10], fields[11]) : null,
+                            count == 7 && fields[13] > fields[12] ? interestTerms(string(bytes, fields[12], fields[13]), line) : null);
+                });
+            } else {
+                readAccountRecords(channel, batches);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            batches.finish();
+        }
+        return batches.count;
+    }
+
+    public static long importTransactions(AccountManager manager, Path file, BookFormat format) {
+        if (manager.isLogEnabled()) {
+            throw new IllegalStateException("Cannot import transactions into a manager with a transaction log enabled: "
+                    + "they would bypass the log and be lost on recovery. Import the book first, then enable the log.");
+        }
+        if (format == BookFormat.BINARY) {
+            long[] count = new long[1];
+            try {
+                TransactionLog.read(file, (position, type, accountNumber, amount, timestamp) -> {
+                    account(manager, accountNumber).replay(type, amount, timestamp);
+                    count[0]++;
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count[0];
+        }
+        long[] count = new long[1];
+        int[] fields = new int[8];
+        try (FileChannel channel = FileChannel.open(file)) {
+            readLines(channel, TRANSACTIONS_HEADER, (bytes, from, to, line) -> {
+                split(bytes, from, to, fields, 4, line);
+                account(manager, string(bytes, fields[0], fields[1])).replay(transactionType(bytes, fields[2], fields[3], line),
+                        parseDouble(bytes, fields[4], fields[5]), parseLong(bytes, fields[6], fields[7]));
+                count[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    private static void readLines(FileChannel channel, String header, LineHandler handler) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        byte[] headerBytes = header.getBytes(StandardCharsets.US_ASCII);
+        long line = 0;
+        boolean eof = false;
+        while (!eof) {
+            eof = channel.read(buffer) < 0;
+            int end = buffer.position();
+            int start = 0;
+            for (int i = 0; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    handleLine(bytes, start, i, ++line, headerBytes, handler);
+                    start = i + 1;
+                }
+            }
+            if (eof && start < end) {
+                handleLine(bytes, start, end, ++line, headerBytes, handler);
+                start = end;
+            }
+            if (start == 0 && end == bytes.length) {
+                throw new IllegalArgumentException("Line " + (line + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+            }
+            System.arraycopy(bytes, start, bytes, 0, end - start);
+            buffer.position(end - start);
+        }
+    }
+
+    private static void handleLine(byte[] bytes, int from, int to, long line, byte[] header, LineHandler handler) {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        if (to == from || line == 1 && isHeader(bytes, from, to, header)) {
+            return;
+        }
+        handler.onLine(bytes, from, to, line);
+    }
+
+    // Fills fields with [start0, end0, start1, end1, ...] and returns the number of fields, which must be between
+    // minimum and fields.length / 2
+    private static int split(byte[] bytes, int from, int to, int[] fields, int minimum, long line) {
+        int count = fields.length / 2;
+        int field = 0;
+        fields[0] = from;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == ',') {
+                if (field == count - 1) {
+                    throw new IllegalArgumentException("Line " + line + " has more than " + count + " fields");
+                }
+                fields[field * 2 + 1] = i;
+                field++;
+                fields[field * 2] = i + 1;
+            }
+        }
+        if (field + 1 < minimum) {
+            throw new IllegalArgumentException("Line " + line + " has " + (field + 1) + " fields, expected at least " + minimum);
+        }
+        fields[field * 2 + 1] = to;
+        return field + 1;
+    }
+
+    private static void readAccountRecords(FileChannel channel, AccountBatches batches) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        ensure(channel, buffer, 8);
+        int version;
+        if (buffer.getInt() != MAGIC || (version = buffer.getInt()) != VERSION && version != VERSION_2 && version != VERSION_1) {
+            throw new IllegalArgumentException("Not a supported binary account book");
+        }
+        while (ensure(channel, buffer, 2)) {
+            String customer = readString(channel, buffer);
+            String accountNumber = readString(channel, buffer);
+            if (!ensure(channel, buffer, 17)) {
+                throw new EOFException("Truncated account record " + (batches.count + 1));
+            }
+            int typeCode = buffer.get();
+            if (typeCode < 0 || typeCode >= TYPES.length) {
+                throw new IllegalArgumentException("Account record " + (batches.count + 1) + " has unknown account type code "
+                        + typeCode);
+            }
+            AccountType type = TYPES[typeCode];
+            double balance = buffer.getDouble();
+            double additionalInfo = buffer.getDouble();
+            String segment = version != VERSION_1 ? readString(channel, buffer) : "";
+            IInterest interest = version == VERSION ? readInterest(channel, buffer, batches.count + 1) : null;
+            batches.add(customer, accountNumber, type, balance, additionalInfo, segment.isEmpty() ? null : segment, interest);
+        }
+    }
+
+    private static IInterest readInterest(FileChannel channel, ByteBuffer buffer, long record) throws IOException {
+        if (!ensure(channel, buffer, 1)) {
+            throw new EOFException("Truncated account record " + record);
+        }
+        byte kind = buffer.get();
+        switch (kind) {
+            case PLAIN_INTEREST:
+                return null;
+            case COMPOUNDING_INTEREST:
+                if (!ensure(channel, buffer, 20)) {
+                    throw new EOFException("Truncated account record " + record);
+                }
+                return new CompoundingInterest(buffer.getDouble(), buffer.getInt(), buffer.getDouble());
+            case TIERED_INTEREST:
+                if (!ensure(channel, buffer, 4)) {
+                    throw new EOFException("Truncated account record " + record);
+                }
+                int tiers = buffer.getInt();
+                if (tiers < 0 || tiers > (BUFFER_SIZE - Integer.BYTES) / 16) {
+                    throw new IllegalArgumentException("Account record " + record + " has " + tiers + " interest tiers");
+                }
+                if (!ensure(channel, buffer, 16 * tiers)) {
+                    throw new EOFException("Truncated account record " + record);
+                }
+                double[] thresholds = new double[tiers];
+                double[] rates = new double[tiers];
+                for (int i = 0; i < tiers; i++) {
+                    thresholds[i] = buffer.getDouble();
+                    rates[i] = buffer.getDouble();
+                }
+                return new TieredInterest(thresholds, rates);
+            default:
+                throw new IllegalArgumentException("Account record " + record + " has unknown interest kind " + kind);
+        }
+    }
+
+    // Parses the CSV interest column written by BookExporter
+    private static IInterest interestTerms(String terms, long line) {
+        String[] tokens = terms.split(" ");
+        try {
+            if (tokens[0].equals("compounding") && tokens.length == 4) {
+                return new CompoundingInterest(Double.parseDouble(tokens[1]), Integer.parseInt(tokens[2]),
+                        Double.parseDouble(tokens[3]));
+            } else if (tokens[0].equals("tiered")) {
+                double[] thresholds = new double[tokens.length - 1];
+                double[] rates = new double[thresholds.length];
+                for (int i = 0; i < thresholds.length; i++) {
+                    int colon = tokens[i + 1].indexOf(':');
+                    thresholds[i] = Double.parseDouble(tokens[i + 1].substring(0, colon));
+                    rates[i] = Double.parseDouble(tokens[i + 1].substring(colon + 1));
+                }
+                return new TieredInterest(thresholds, rates);
+            }
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Line " + line + ": malformed interest terms " + terms, e);
+        }
+        throw new IllegalArgumentException("Line " + line + ": unknown interest terms " + terms);
+    }
+
+    private static String readString(FileChannel channel, ByteBuffer buffer) throws IOException {
+        if (!ensure(channel, buffer, 2)) {
+            throw new EOFException("Truncated account record");
+        }
+        int length = buffer.getShort() & 0xffff;
+        if (!ensure(channel, buffer, length)) {
+            throw new EOFException("Truncated account record");
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Refills the (read-mode) buffer until it holds at least n bytes; false only at a clean end of file
+    private static boolean ensure(FileChannel channel, ByteBuffer buffer, int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                boolean empty = buffer.position() == 0;
+                buffer.flip();
+                if (empty) {
+                    return false;
+                }
+                throw new EOFException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static BankAccount account(AccountManager manager, String accountNumber) {
+        BankAccount account = (BankAccount) manager.findAccount(accountNumber);
+        if (account == null) {
+            throw new IllegalArgumentException("Transaction for unknown account " + accountNumber);
+        }
+        return account;
+    }
+
+    private static AccountType accountType(byte[] bytes, int from, int to, long line) {
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            if (equals(bytes, from, to, TYPE_NAMES[i])) {
+                return TYPES[i];
+            }
+        }
+        throw new IllegalArgumentException("Line " + line + ": unknown account type " + string(bytes, from, to));
+    }
+
+    private static byte transactionType(byte[] bytes, int from, int to, long line) {
+        for (int i = 0; i < TRANSACTION_TYPES.length; i++) {
+            if (equals(bytes, from, to, TRANSACTION_TYPES[i])) {
+                return (byte) (TransactionLog.DEPOSIT + i);
+            }
+        }
+        throw new IllegalArgumentException("Line " + line + ": unknown transaction type " + string(bytes, from, to));
+    }
+
+    private static boolean equals(byte[] bytes, int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Also accepts headers from older files that lack trailing columns
+    private static boolean isHeader(byte[] bytes, int from, int to, byte[] header) {
+        int length = to - from;
+        if (length > header.length || length < header.length && header[length] != ',') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[from + i] != header[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String string(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    // Fast path for plain decimals such as "-1250.75" or "1.0E7"; anything else falls back to Double.parseDouble
+    static double parseDouble(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = i < to && bytes[i] == '-';
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || b != '0') {
+                    if (++digits > 18) {
+                        return slowParseDouble(bytes, from, to);
+                    }
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i < to && (bytes[i] == 'E' || bytes[i] == 'e')) {
+            i++;
+            boolean negativeExponent = i < to && bytes[i] == '-';
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                i++;
+            }
+            int value = 0;
+            int start = i;
+            for (; i < to && bytes[i] >= '0' && bytes[i] <= '9' && value < 1000; i++) {
+                value = value * 10 + (bytes[i] - '0');
+            }
+            if (i == start) {
+                return slowParseDouble(bytes, from, to);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (!seenDigit || i != to || mantissa >= 1L << 53 || exponent < -22 || exponent > 22) {
+            return slowParseDouble(bytes, from, to);
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    static long parseLong(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = i < to && bytes[i] == '-';
+        if (negative || i < to && bytes[i] == '+') {
+            i++;
+        }
+        if (i == to || to - i > 18) {
+            return Long.parseLong(string(bytes, from, to));
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Not a number: " + string(bytes, from, to));
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(byte[] bytes, int from, int to) {
+        return Double.parseDouble(string(bytes, from, to));
+    }
+
+    private interface LineHandler {
+        void onLine(byte[] bytes, int from, int to, long line);
+    }
+
+    private static final class AccountBatches {
+        private final AccountManager manager;
+        private final ForkJoinPool pool;
+        private final Semaphore inFlight;
+        private final List<ForkJoinTask<?>> submitted = new ArrayList<>();
+        private AccountBatch current = new AccountBatch();
+        private long count;
+
+        AccountBatches(AccountManager manager, ForkJoinPool pool) {
+            this.manager = manager;
+            this.pool = pool;
+            this.inFlight = new Semaphore(pool.getParallelism() * 2);
+        }
+
+        void add(String customer, String accountNumber, AccountType type, double balance, double additionalInfo,
+                 String segment, IInterest interest) {
+            current.add(customer, accountNumber, type, balance, additionalInfo, segment, interest);
+            count++;
+            if (current.size == BATCH_SIZE) {
+                submit();
+            }
+        }
+
+        void finish() {
+            if (current.size > 0) {
+                submit();
+            }
+            for (ForkJoinTask<?> task : submitted) {
+                task.join();
+            }
+        }
+
+        private void submit() {
+            AccountBatch batch = current;
+            current = new AccountBatch();
+            inFlight.acquireUninterruptibly();
+            submitted.add(pool.submit(() -> {
+                try {
+                    batch.applyTo(manager);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+    }
+
+    private static final class AccountBatch {
+        private final String[] customers = new String[BATCH_SIZE];
+        private final String[] accountNumbers = new String[BATCH_SIZE];
+        private final AccountType[] types = new AccountType[BATCH_SIZE];
+        private final double[] balances = new double[BATCH_SIZE];
+        private final double[] additionalInfo = new double[BATCH_SIZE];
+        private final String[] segments = new String[BATCH_SIZE];
+        private final IInterest[] interests = new IInterest[BATCH_SIZE];
+        private int size;
+
+        void add(String customer, String accountNumber, AccountType type, double balance, double info, String segment,
+                 IInterest interest) {
+            customers[size] = customer;
+            accountNumbers[size] = accountNumber;
+            types[size] = type;
+            balances[size] = balance;
+            additionalInfo[size] = info;
+            segments[size] = segment;
+            interests[size] = interest;
+            size++;
+        }
+
+        void applyTo(AccountManager manager) {
+            for (int i = 0; i < size; i++) {
+                manager.importAccount(accountNumbers[i], types[i], customers[i], balances[i], additionalInfo[i], segments[i],
+                        interests[i]);
+            }
+        }
+    }
+}
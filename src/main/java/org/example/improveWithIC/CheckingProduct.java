@@ -0,0 +1,23 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IAccountProduct;
+import org.example.improveWithIC.interfaces.IOverdraft;
+
+// Every account created from one product shares its overdraft behaviour object
+public class CheckingProduct implements IAccountProduct {
+    private final IOverdraft overdraft;
+
+    public CheckingProduct(double overdraftLimit) {
+        this.overdraft = new OverdraftProtection(overdraftLimit);
+    }
+
+    public CheckingProduct(OverdraftPolicy policy, String segment) {
+        this.overdraft = policy.forSegment(segment);
+    }
+
+    @Override
+    public IAccount create(String accountNumber, double initialBalance) {
+        return new BankAccount(accountNumber, initialBalance, overdraft, null);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.improveWithIC;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free ring for many producers and a single consumer. Each slot carries a sequence number that
+// tells producers when it is free and the consumer when it is filled, so neither side ever takes a lock.
+class CommandRing<T> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    CommandRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two");
+        }
+        slots = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Returns false when the ring is full
+    boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) {
+                return false;
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                slots[index] = item;
+                sequences.lazySet(index, position + 1);
+                return true;
+            }
+        }
+    }
+
+    // Number of items ever accepted, including any still being written into their slot
+    long offered() {
+        return tail.get();
+    }
+
+    // Consumer thread only; returns null when the ring is empty
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        T item = (T) slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, head + slots.length);
+        head++;
+        return item;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+// In-process request front end for AccountManager. Each client session has an inbox served by its own thread,
+// which blocks while the session is idle. On Java 21+ these are virtual threads, so idle sessions cost a few
+// hundred bytes each and 100k of them are fine; on older runtimes it falls back to a cached platform pool.
+public class CommandServer implements Closeable {
+    private final AccountManager accountManager;
+    private final ExecutorService sessionExecutor;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+
+    public CommandServer(AccountManager accountManager) {
+        this(accountManager, newSessionExecutor());
+    }
+
+    public CommandServer(AccountManager accountManager, ExecutorService sessionExecutor) {
+        this.accountManager = accountManager;
+        this.sessionExecutor = sessionExecutor;
+    }
+
+    public Session openSession() {
+        Session session = new Session();
+        sessions.add(session);
+        try {
+            sessionExecutor.execute(session::serve);
+        } catch (RejectedExecutionException e) {
+            sessions.remove(session);
+            throw new IllegalStateException("CommandServer is closed", e);
+        }
+        return session;
+    }
+
+    // Interrupts every session; commands they have not started, and any submitted later, complete exceptionally
+    @Override
+    public void close() {
+        sessionExecutor.shutdownNow();
+        for (Session session : sessions) {
+            session.stop();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor is looked up reflectively so the build can stay on release 17
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public class Session implements Closeable {
+        private final BlockingQueue<Command> inbox = new LinkedBlockingQueue<>();
+        private volatile boolean stopped;
+
+        public CompletableFuture<Boolean> deposit(String accountNumber, double amount) {
+            return submit(new Command(CommandType.DEPOSIT, accountNumber, null, amount));
+        }
+
+        public CompletableFuture<Boolean> withdraw(String accountNumber, double amount) {
+            return submit(new Command(CommandType.WITHDRAW, accountNumber, null, amount));
+        }
+
+        public CompletableFuture<Boolean> transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+            return submit(new Command(CommandType.TRANSFER, fromAccountNumber, toAccountNumber, amount));
+        }
+
+        public CompletableFuture<Double> balance(String accountNumber) {
+            return submit(new Command(CommandType.BALANCE, accountNumber, null, 0));
+        }
+
+        // Commands submitted before close still run; commands submitted after it complete exceptionally
+        @Override
+        public void close() {
+            inbox.add(Command.CLOSE);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> CompletableFuture<T> submit(Command command) {
+            inbox.add(command);
+            // Checked after adding: either serve() has not stopped yet and will run or fail it, or it has and this call fails it
+            if (stopped) {
+                failPending();
+            }
+            return (CompletableFuture<T>) command.reply;
+        }
+
+        private void serve() {
+            try {
+                for (Command command = inbox.take(); command != Command.CLOSE; command = inbox.take()) {
+                    try {
+                        command.reply.complete(execute(command));
+                    } catch (RuntimeException e) {
+                        command.reply.completeExceptionally(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stop();
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            sessions.remove(this);
+            failPending();
+        }
+
+        private void failPending() {
+            for (Command command = inbox.poll(); command != null; command = inbox.poll()) {
+                command.reply.completeExceptionally(new IllegalStateException("Session is closed"));
+            }
+        }
+
+        private Object execute(Command command) {
+            BankAccount account = account(command.accountNumber);
+            switch (command.type) {
+                case DEPOSIT:
+                    account.deposit(command.amount);
+                    return true;
+                case WITHDRAW:
+                    return account.withdraw(command.amount).isCompleted();
+                case TRANSFER:
+                    return accountManager.transferFunds(account, account(command.toAccountNumber), command.amount);
+                default:
+                    return account.getBalance();
+            }
+        }
+
+        private BankAccount account(String accountNumber) {
+            IAccount account = accountManager.findAccount(accountNumber);
+            if (account == null) {
+                throw new IllegalArgumentException("Unknown account: " + accountNumber);
+            }
+            return AccountManager.managed(account);
+        }
+    }
+
+    private enum CommandType {
+        DEPOSIT, WITHDRAW, TRANSFER, BALANCE, CLOSE
+    }
+
+    private static class Command {
+        static final Command CLOSE = new Command(CommandType.CLOSE, null, null, 0);
+
+        final CommandType type;
+        final String accountNumber;
+        final String toAccountNumber;
+        final double amount;
+        final CompletableFuture<Object> reply = new CompletableFuture<>();
+
+        Command(CommandType type, String accountNumber, String toAccountNumber, double amount) {
+            this.type = type;
+            this.accountNumber = accountNumber;
+            this.toAccountNumber = toAccountNumber;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IInterest;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Annual rate (APR) compounded a number of times per year, accrued over a period of days.
+// Everything except the balance is fixed, so the growth factor is computed once and each accrual is one multiply.
+public class CompoundingInterest implements IInterest {
+    private double annualRate;
+    private int compoundingsPerYear;
+    private double periodFactor;
+
+    public CompoundingInterest(double annualRate, int compoundingsPerYear, int accrualDays, DayCount dayCount) {
+        if (compoundingsPerYear <= 0 || accrualDays <= 0) {
+            throw new IllegalArgumentException("Compounding periods and accrual days must be positive");
+        }
+        this.annualRate = annualRate;
+        this.compoundingsPerYear = compoundingsPerYear;
+        double compoundings = compoundingsPerYear * dayCount.yearFraction(accrualDays);
+        this.periodFactor = Math.pow(1 + annualRate / compoundingsPerYear, compoundings) - 1;
+    }
+
+    // Interest for the period from start to end, with its days counted under dayCount (e.g. 30/360)
+    public CompoundingInterest(double annualRate, int compoundingsPerYear, LocalDate start, LocalDate end, DayCount dayCount) {
+        this(annualRate, compoundingsPerYear, dayCount.days(start, end), dayCount);
+    }
+
+    // Restores an instance whose growth factor was computed elsewhere, e.g. read back from a snapshot
+    CompoundingInterest(double annualRate, int compoundingsPerYear, double periodFactor) {
+        this.annualRate = annualRate;
+        this.compoundingsPerYear = compoundingsPerYear;
+        this.periodFactor = periodFactor;
+    }
+
+    // Daily interest on an APR that compounds daily, e.g. for a nightly accrual run
+    public static CompoundingInterest daily(double annualRate, DayCount dayCount) {
+        return new CompoundingInterest(annualRate, dayCount.getDaysInYear(), 1, dayCount);
+    }
+
+    @Override
+    public double calculateInterest(double balance) {
+        return balance * periodFactor;
+    }
+
+    @Override
+    public void calculateInterest(double[] balances, double[] accruals, int length) {
+        double factor = periodFactor;
+        for (int i = 0; i < length; i++) {
+            accruals[i] = balances[i] * factor;
+        }
+    }
+
+    public double getAnnualRate() {
+        return annualRate;
+    }
+
+    public int getCompoundingsPerYear() {
+        return compoundingsPerYear;
+    }
+
+    // Interest earned per accrual as a fraction of the balance
+    public double getPeriodFactor() {
+        return periodFactor;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof CompoundingInterest)) {
+            return false;
+        }
+        CompoundingInterest that = (CompoundingInterest) other;
+        return Double.compare(that.annualRate, annualRate) == 0 && that.compoundingsPerYear == compoundingsPerYear
+                && Double.compare(that.periodFactor, periodFactor) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(annualRate, compoundingsPerYear, periodFactor);
+    }
+}
@@ -2,12 +2,20 @@ package org.example.improveWithIC;
 
 import org.example.improveWithIC.interfaces.IAccount;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Customer {
     private String name;
-    private List<IAccount> accounts = new ArrayList<>();
+    private Queue<IAccount> accounts = new ConcurrentLinkedQueue<>();
+    // Portfolio totals of BankAccounts in minor units (see Money), moved by each account as its balance changes.
+    // Every change adds the difference of the rounded new and old values, so the sums telescope and never drift.
+    // Only headroom may need the accounts again, when an overdraft policy was repriced since they last reported.
+    private LongAdder totalBalance = new LongAdder();
+    private LongAdder overdraftHeadroom = new LongAdder();
+    private LongAdder interestBearingBalance = new LongAdder();
 
     public Customer(String name) {
         this.name = name;
@@ -15,9 +23,56 @@ public class Customer {
 
     public void addAccount(IAccount account) {
         accounts.add(account);
+        if (account instanceof BankAccount) {
+            ((BankAccount) account).attachOwner(this);
+        }
     }
 
     public String getName() {
         return name;
     }
+
+    public List<IAccount> getAccounts() {
+        return List.copyOf(accounts);
+    }
+
+    // Accounts other than BankAccount do not report their changes, so their balances are read here
+    public PortfolioSummary getPortfolio() {
+        int accountCount = 0;
+        long polledBalance = 0;
+        long polledHeadroom = 0;
+        long polledInterestBearing = 0;
+        for (IAccount account : accounts) {
+            if (account instanceof BankAccount) {
+                ((BankAccount) account).refreshHeadroom();
+            } else if (account instanceof FixedPointBankAccount) {
+                FixedPointBankAccount fixedPoint = (FixedPointBankAccount) account;
+                long balance = fixedPoint.getBalanceMinor();
+                polledBalance += balance;
+                polledHeadroom += Math.max(0, fixedPoint.getOverdraftLimitMinor() + Math.min(balance, 0));
+                if (fixedPoint.isInterestBearing()) {
+                    polledInterestBearing += balance;
+                }
+            } else {
+                polledBalance += Money.toMinorUnits(account.getBalance());
+            }
+            accountCount++;
+        }
+        return new PortfolioSummary(Money.toDouble(totalBalance.sum() + polledBalance),
+                Money.toDouble(overdraftHeadroom.sum() + polledHeadroom),
+                Money.toDouble(interestBearingBalance.sum() + polledInterestBearing), accountCount);
+    }
+
+    // Called by the account under its lock; oldBalance is NaN when the account is first attached
+    void balanceChanged(BankAccount account, double oldBalance, double newBalance) {
+        long delta = Money.toMinorUnits(newBalance) - (Double.isNaN(oldBalance) ? 0 : Money.toMinorUnits(oldBalance));
+        totalBalance.add(delta);
+        if (account.isInterestBearing()) {
+            interestBearingBalance.add(delta);
+        }
+    }
+
+    void headroomChanged(double oldHeadroom, double newHeadroom) {
+        overdraftHeadroom.add(Money.toMinorUnits(newHeadroom) - Money.toMinorUnits(oldHeadroom));
+    }
 }
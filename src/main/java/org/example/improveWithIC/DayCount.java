@@ -0,0 +1,46 @@
+package org.example.improveWithIC;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// Day-count conventions: how the days in a period are counted, and how many make up the year an annual rate is
+// quoted against.
+public enum DayCount {
+    ACTUAL_360(360),
+    ACTUAL_365(365),
+    // 30/360 US (bond basis): every month counts as 30 days. A start on the 31st counts from the 30th, and an end on
+    // the 31st counts as the 30th when the start was the 30th or 31st.
+    THIRTY_360(360) {
+        @Override
+        public int days(LocalDate start, LocalDate end) {
+            int startDay = Math.min(start.getDayOfMonth(), 30);
+            int endDay = end.getDayOfMonth() == 31 && startDay == 30 ? 30 : end.getDayOfMonth();
+            return 360 * (end.getYear() - start.getYear()) + 30 * (end.getMonthValue() - start.getMonthValue())
+                    + endDay - startDay;
+        }
+    };
+
+    private final int daysInYear;
+
+    DayCount(int daysInYear) {
+        this.daysInYear = daysInYear;
+    }
+
+    // Days from start (inclusive) to end (exclusive), counted under this convention
+    public int days(LocalDate start, LocalDate end) {
+        return (int) ChronoUnit.DAYS.between(start, end);
+    }
+
+    public double yearFraction(LocalDate start, LocalDate end) {
+        return yearFraction(days(start, end));
+    }
+
+    // days must already be counted under this convention, see days(LocalDate, LocalDate)
+    public double yearFraction(int days) {
+        return (double) days / daysInYear;
+    }
+
+    public int getDaysInYear() {
+        return daysInYear;
+    }
+}
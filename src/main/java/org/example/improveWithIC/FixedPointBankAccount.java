@@ -0,0 +1,116 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Same behaviour as BankAccount with a fixed overdraft limit (a limit of 0 means no overdraft), but balance,
+// overdraft limit and interest rate are held as longs (see Money) so totals reconcile exactly and the *Minor
+// methods never box or round. Like BankAccount, an account with an overdraft checks the limit first.
+public class FixedPointBankAccount implements IAccount {
+    private String accountNumber;
+    private long balance;
+    private long overdraftLimit;
+    private long interestRate;
+    private TransactionJournal transactions = new TransactionJournal();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FixedPointBankAccount(String accountNumber, long balance, long overdraftLimit, long interestRate) {
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.overdraftLimit = overdraftLimit;
+        this.interestRate = interestRate;
+    }
+
+    @Override
+    public void deposit(double amount) {
+        depositMinor(Money.toMinorUnits(amount));
+    }
+
+    @Override
+    public WithdrawalResult withdraw(double amount) {
+        return withdrawMinor(Money.toMinorUnits(amount));
+    }
+
+    public void depositMinor(long amount) {
+        lock.lock();
+        try {
+            balance = Math.addExact(balance, amount);
+            transactions.append("deposit", Money.toDouble(amount), LedgerClock.now(), "Deposit made");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public WithdrawalResult withdrawMinor(long amount) {
+        lock.lock();
+        try {
+            if (overdraftLimit != 0 && Math.addExact(balance, overdraftLimit) >= amount) {
+                balance = Math.subtractExact(balance, amount);
+                transactions.append("withdrawal", Money.toDouble(amount), LedgerClock.now(), "Withdrawal with overdraft");
+                return balance < 0 ? WithdrawalResult.OVERDRAWN : WithdrawalResult.COMPLETED;
+            } else if (balance >= amount) {
+                balance = Math.subtractExact(balance, amount);
+                transactions.append("withdrawal", Money.toDouble(amount), LedgerClock.now(), "Withdrawal made");
+                return WithdrawalResult.COMPLETED;
+            }
+            WithdrawalResult result = overdraftLimit != 0
+                    ? WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED : WithdrawalResult.INSUFFICIENT_FUNDS;
+            RejectionEvents.publish(accountNumber, Money.toDouble(amount), Money.toDouble(balance), result);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void calculateInterest() {
+        if (interestRate != 0) {
+            lock.lock();
+            try {
+                long interest = Money.applyRate(balance, interestRate);
+                balance = Math.addExact(balance, interest);
+                transactions.append("interest", Money.toDouble(interest), LedgerClock.now(), "Interest credited");
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public double getBalance() {
+        return Money.toDouble(getBalanceMinor());
+    }
+
+    public long getBalanceMinor() {
+        lock.lock();
+        try {
+            return balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getOverdraftLimitMinor() {
+        return overdraftLimit;
+    }
+
+    boolean isInterestBearing() {
+        return interestRate != 0;
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory() {
+        return transactions.view();
+    }
+
+    @Override
+    public Stream<Transaction> queryHistory(HistoryQuery query) {
+        return transactions.query(query);
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.improveWithIC;
+
+// Filter for IAccount.queryHistory: an optional [from, to) time range in epoch millis, an optional transaction type,
+// a result limit and the order. Unset fields match everything, oldest first.
+public class HistoryQuery {
+    private long from = Long.MIN_VALUE;
+    private long to = Long.MAX_VALUE;
+    private String type;
+    private long limit = Long.MAX_VALUE;
+    private boolean newestFirst;
+
+    public static HistoryQuery all() {
+        return new HistoryQuery();
+    }
+
+    // The last `count` transactions, newest first: the typical statement / UI page
+    public static HistoryQuery latest(int count) {
+        return new HistoryQuery().newestFirst().limit(count);
+    }
+
+    public HistoryQuery between(long fromInclusive, long toExclusive) {
+        this.from = fromInclusive;
+        this.to = toExclusive;
+        return this;
+    }
+
+    public HistoryQuery ofType(String type) {
+        this.type = type;
+        return this;
+    }
+
+    public HistoryQuery limit(long limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public HistoryQuery newestFirst() {
+        this.newestFirst = true;
+        return this;
+    }
+
+    public boolean matches(Transaction transaction) {
+        long time = transaction.getDate().getTime();
+        return time >= from && time < to && (type == null || type.equals(transaction.getType()));
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public boolean isNewestFirst() {
+        return newestFirst;
+    }
+}
@@ -13,4 +13,26 @@ public class InterestBearing implements IInterest {
     public double calculateInterest(double balance) {
         return balance * interestRate;
     }
+
+    @Override
+    public void calculateInterest(double[] balances, double[] accruals, int length) {
+        double rate = interestRate;
+        for (int i = 0; i < length; i++) {
+            accruals[i] = balances[i] * rate;
+        }
+    }
+
+    public double getInterestRate() {
+        return interestRate;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof InterestBearing && Double.compare(((InterestBearing) other).interestRate, interestRate) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(interestRate);
+    }
 }
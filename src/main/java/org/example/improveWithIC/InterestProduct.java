@@ -0,0 +1,23 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IAccountProduct;
+import org.example.improveWithIC.interfaces.IInterest;
+
+// Savings and loan products: accounts accrue interest and have no overdraft
+public class InterestProduct implements IAccountProduct {
+    private final IInterest interest;
+
+    public InterestProduct(double interestRate) {
+        this(new InterestBearing(interestRate));
+    }
+
+    public InterestProduct(IInterest interest) {
+        this.interest = interest;
+    }
+
+    @Override
+    public IAccount create(String accountNumber, double initialBalance) {
+        return new BankAccount(accountNumber, initialBalance, null, interest);
+    }
+}
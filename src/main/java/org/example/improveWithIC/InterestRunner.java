@@ -0,0 +1,169 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IInterest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// Accrues interest on every interest-bearing account in parallel on a fork-join pool.
+// A run is identified by its start time, which is kept in the progress file until the run completes. Accounts
+// remember when they last accrued, so restarting after a crash resumes the same run and skips credited accounts.
+public class InterestRunner {
+    private static final int THRESHOLD = 4096;
+
+    private final ForkJoinPool pool;
+    private final Path progressFile;
+    private final LongAdder accrued = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private volatile long total;
+
+    public InterestRunner() {
+        this(ForkJoinPool.commonPool(), null);
+    }
+
+    public InterestRunner(ForkJoinPool pool, Path progressFile) {
+        this.pool = pool;
+        this.progressFile = progressFile;
+    }
+
+    public void run(Collection<? extends IAccount> accounts, TransactionLog log) {
+        long runStartedAt = startOrResume();
+        // Accounts on equal terms share one batch calculation; see IInterest.calculateInterest(double[], ...)
+        Map<IInterest, List<BankAccount>> byTerms = new HashMap<>();
+        for (IAccount account : accounts) {
+            BankAccount bankAccount = AccountManager.managed(account);
+            if (bankAccount.isInterestBearing()) {
+                byTerms.computeIfAbsent(bankAccount.getInterestCalculator(), terms -> new ArrayList<>()).add(bankAccount);
+            }
+        }
+        accrued.reset();
+        skipped.reset();
+        List<Accrual> accruals = new ArrayList<>();
+        long count = 0;
+        for (Map.Entry<IInterest, List<BankAccount>> group : byTerms.entrySet()) {
+            BankAccount[] members = group.getValue().toArray(new BankAccount[0]);
+            accruals.add(new Accrual(group.getKey(), members, 0, members.length, runStartedAt, accrued, skipped));
+            count += members.length;
+        }
+        total = count;
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(accruals)));
+
+        // Interest must be durable before the run is forgotten, otherwise a crash now would credit it twice
+        if (log != null) {
+            log.flush();
+        }
+        complete();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getAccrued() {
+        return accrued.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public double getProgress() {
+        long count = total;
+        return count == 0 ? 1.0 : (double) (accrued.sum() + skipped.sum()) / count;
+    }
+
+    private long startOrResume() {
+        long now = LedgerClock.now();
+        if (progressFile == null) {
+            return now;
+        }
+        try (FileChannel channel = FileChannel.open(progressFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            if (channel.read(buffer, 0) == Long.BYTES) {
+                return buffer.getLong(0);
+            }
+            buffer.putLong(0, now);
+            channel.write(buffer, 0);
+            channel.force(true);
+            return now;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void complete() {
+        if (progressFile != null) {
+            try {
+                Files.deleteIfExists(progressFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class Accrual extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IInterest terms;
+        private final BankAccount[] accounts;
+        private final int from;
+        private final int to;
+        private final long runStartedAt;
+        private final LongAdder accrued;
+        private final LongAdder skipped;
+
+        Accrual(IInterest terms, BankAccount[] accounts, int from, int to, long runStartedAt, LongAdder accrued,
+                LongAdder skipped) {
+            this.terms = terms;
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+            this.runStartedAt = runStartedAt;
+            this.accrued = accrued;
+            this.skipped = skipped;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                // Balances are read without locking and accrued in one batch; each posting re-checks its balance
+                int length = to - from;
+                double[] balances = new double[length];
+                double[] interest = new double[length];
+                for (int i = 0; i < length; i++) {
+                    balances[i] = accounts[from + i].getBalance();
+                }
+                terms.calculateInterest(balances, interest, length);
+                long credited = 0;
+                for (int i = 0; i < length; i++) {
+                    if (accounts[from + i].accrueInterestSince(runStartedAt, balances[i], interest[i])) {
+                        credited++;
+                    }
+                }
+                accrued.add(credited);
+                skipped.add(length - credited);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Accrual(terms, accounts, from, middle, runStartedAt, accrued, skipped),
+                    new Accrual(terms, accounts, middle, to, runStartedAt, accrued, skipped));
+        }
+    }
+}
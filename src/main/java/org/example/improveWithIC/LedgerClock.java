@@ -0,0 +1,25 @@
+package org.example.improveWithIC;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Millisecond wall clock that never goes backwards, even if the system clock is adjusted.
+// System.currentTimeMillis() is a cheap vDSO call that does not allocate, so it is read directly; the shared
+// high-water mark is only written by the first caller to see each new millisecond, so readers rarely contend.
+public final class LedgerClock {
+    private static final AtomicLong LAST = new AtomicLong(System.currentTimeMillis());
+
+    private LedgerClock() {
+    }
+
+    public static long now() {
+        long current = System.currentTimeMillis();
+        long last = LAST.get();
+        while (current > last) {
+            if (LAST.compareAndSet(last, current)) {
+                return current;
+            }
+            last = LAST.get();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.improveWithIC;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Process-wide counters, gauges and latency histograms for the composition design.
+// Counters are striped LongAdders bumped inline on the hot path; gauges and the text exposition are pull-based and
+// only cost anything when scraped. Start the JVM with -Dbank.metrics=false to compile all recording away.
+public final class Metrics {
+    static final boolean ENABLED = !"false".equals(System.getProperty("bank.metrics"));
+    // One in TRANSFER_SAMPLE transfers is timed, keeping the two clock reads off most transfers
+    private static final int TRANSFER_SAMPLE = 8;
+
+    public static final LongAdder DEPOSITS = new LongAdder();
+    public static final LongAdder WITHDRAWALS = new LongAdder();
+    public static final LongAdder REJECTED_WITHDRAWALS = new LongAdder();
+    public static final LongAdder INTEREST_POSTINGS = new LongAdder();
+    public static final LongAdder TRANSFERS = new LongAdder();
+    public static final LongAdder REJECTED_TRANSFERS = new LongAdder();
+    public static final LongAdder ACCOUNTS_CREATED = new LongAdder();
+    public static final LongAdder REJECTION_HANDLER_FAILURES = new LongAdder();
+    public static final LatencyHistogram TRANSFER_LATENCY = new LatencyHistogram();
+
+    // A gauge reports the sum of every supplier registered under its name, e.g. one per live AccountManager
+    private static final Map<String, Set<LongSupplier>> GAUGES = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    static void increment(LongAdder counter) {
+        if (ENABLED) {
+            counter.increment();
+        }
+    }
+
+    static boolean sampleTransfer() {
+        return ENABLED && ThreadLocalRandom.current().nextInt(TRANSFER_SAMPLE) == 0;
+    }
+
+    public static void registerGauge(String name, LongSupplier gauge) {
+        GAUGES.computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet()).add(gauge);
+    }
+
+    // Takes back a supplier passed to registerGauge, so its owner can be collected
+    public static void unregisterGauge(String name, LongSupplier gauge) {
+        GAUGES.computeIfPresent(name, (key, gauges) -> gauges.remove(gauge) && gauges.isEmpty() ? null : gauges);
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("bank_deposits_total", DEPOSITS.sum());
+        values.put("bank_withdrawals_total", WITHDRAWALS.sum());
+        values.put("bank_withdrawals_rejected_total", REJECTED_WITHDRAWALS.sum());
+        values.put("bank_interest_postings_total", INTEREST_POSTINGS.sum());
+        values.put("bank_transfers_total", TRANSFERS.sum());
+        values.put("bank_transfers_rejected_total", REJECTED_TRANSFERS.sum());
+        values.put("bank_accounts_created_total", ACCOUNTS_CREATED.sum());
+        values.put("bank_rejection_handler_failures_total", REJECTION_HANDLER_FAILURES.sum());
+        values.put("bank_transfer_latency_sampled_count", TRANSFER_LATENCY.getCount());
+        values.put("bank_transfer_latency_p50_nanos", TRANSFER_LATENCY.getValueAtQuantile(0.50));
+        values.put("bank_transfer_latency_p99_nanos", TRANSFER_LATENCY.getValueAtQuantile(0.99));
+        values.put("bank_transfer_latency_p999_nanos", TRANSFER_LATENCY.getValueAtQuantile(0.999));
+        GAUGES.forEach((name, gauges) -> values.put(name, gauges.stream().mapToLong(LongSupplier::getAsLong).sum()));
+        return values;
+    }
+
+    // Prometheus-style text exposition, e.g. for a scrape endpoint to return as is
+    public static String scrape() {
+        StringBuilder text = new StringBuilder();
+        snapshot().forEach((name, value) -> text.append(name).append(' ').append(value).append('\n'));
+        return text.toString();
+    }
+}
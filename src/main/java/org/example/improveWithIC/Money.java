@@ -0,0 +1,27 @@
+package org.example.improveWithIC;
+
+// Exact money arithmetic on long minor units (cents) and rates in parts per million.
+public final class Money {
+    public static final long MINOR_UNITS = 100;
+    public static final long RATE_SCALE = 1_000_000;
+
+    private Money() {
+    }
+
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_UNITS);
+    }
+
+    public static double toDouble(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS;
+    }
+
+    public static long toRate(double rate) {
+        return Math.round(rate * RATE_SCALE);
+    }
+
+    // Rounds half up to the nearest minor unit; throws ArithmeticException instead of silently overflowing
+    public static long applyRate(long minorUnits, long rate) {
+        return Math.floorDiv(Math.addExact(Math.multiplyExact(minorUnits, rate), RATE_SCALE / 2), RATE_SCALE);
+    }
+}
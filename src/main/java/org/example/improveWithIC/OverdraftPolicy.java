@@ -0,0 +1,100 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IOverdraft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Shared overdraft limits per customer segment. The limits live in one immutable table that is swapped as a whole,
+// so a bulk repricing is atomic and a withdrawal only pays a volatile read and an array lookup to find its limit.
+public class OverdraftPolicy {
+    public static final String STANDARD = "standard";
+
+    private final Map<String, Integer> segments = new ConcurrentHashMap<>();
+    private final Set<BankAccount> overdrawn = ConcurrentHashMap.newKeySet();
+    private volatile Limits limits = new Limits(0, new double[0]);
+
+    public OverdraftPolicy(Map<String, Double> initialLimits) {
+        update(initialLimits);
+    }
+
+    public IOverdraft forSegment(String segment) {
+        return new SegmentOverdraft(this, segmentId(segment), segment);
+    }
+
+    // Replaces the limits of the given segments in one step and returns the new policy version
+    public synchronized long update(Map<String, Double> newLimits) {
+        for (String segment : newLimits.keySet()) {
+            segmentId(segment);
+        }
+        Limits current = limits;
+        double[] table = Arrays.copyOf(current.values, segments.size());
+        for (Map.Entry<String, Double> entry : newLimits.entrySet()) {
+            table[segments.get(entry.getKey())] = entry.getValue();
+        }
+        limits = new Limits(current.version + 1, table);
+        return current.version + 1;
+    }
+
+    public long getVersion() {
+        return limits.version;
+    }
+
+    public double getLimit(String segment) {
+        Integer id = segments.get(segment);
+        return id == null ? 0 : limit(id);
+    }
+
+    // Accounts below zero, deepest first
+    public List<IAccount> findOverdrawnAccounts() {
+        List<BankAccount> candidates = new ArrayList<>(overdrawn);
+        double[] balances = new double[candidates.size()];
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            balances[i] = candidates.get(i).getBalance();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> balances[i]));
+        List<IAccount> result = new ArrayList<>(order.length);
+        for (Integer i : order) {
+            if (balances[i] < 0) {
+                result.add(candidates.get(i));
+            }
+        }
+        return result;
+    }
+
+    double limit(int segment) {
+        double[] values = limits.values;
+        return segment < values.length ? values[segment] : 0;
+    }
+
+    // Called by the account under its lock whenever its balance moves
+    void balanceChanged(BankAccount account, double oldBalance, double newBalance) {
+        if (newBalance < 0 && !(oldBalance < 0)) {
+            overdrawn.add(account);
+        } else if (!(newBalance < 0) && oldBalance < 0) {
+            overdrawn.remove(account);
+        }
+    }
+
+    private synchronized int segmentId(String segment) {
+        return segments.computeIfAbsent(segment, name -> segments.size());
+    }
+
+    private static final class Limits {
+        final long version;
+        final double[] values;
+
+        Limits(long version, double[] values) {
+            this.version = version;
+            this.values = values;
+        }
+    }
+}
@@ -13,4 +13,8 @@ public class OverdraftProtection implements IOverdraft {
     public boolean canWithdraw(double amount, double balance) {
         return balance + overdraftLimit >= amount;
     }
+
+    public double getOverdraftLimit() {
+        return overdraftLimit;
+    }
 }
@@ -0,0 +1,38 @@
+package org.example.improveWithIC;
+
+public class PortfolioSummary {
+    private double totalBalance;
+    private double overdraftHeadroom;
+    private double interestBearingBalance;
+    private int accountCount;
+
+    public PortfolioSummary(double totalBalance, double overdraftHeadroom, double interestBearingBalance, int accountCount) {
+        this.totalBalance = totalBalance;
+        this.overdraftHeadroom = overdraftHeadroom;
+        this.interestBearingBalance = interestBearingBalance;
+        this.accountCount = accountCount;
+    }
+
+    public double getTotalBalance() {
+        return totalBalance;
+    }
+
+    // Overdraft still available across all accounts with overdraft protection
+    public double getOverdraftHeadroom() {
+        return overdraftHeadroom;
+    }
+
+    public double getInterestBearingBalance() {
+        return interestBearingBalance;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    @Override
+    public String toString() {
+        return "total " + totalBalance + ", overdraft headroom " + overdraftHeadroom
+                + ", interest-bearing " + interestBearingBalance + ", accounts " + accountCount;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.improveWithIC;
+
+public class RejectionEvent {
+    private final String accountNumber;
+    private final double amount;
+    private final double balance;
+    private final WithdrawalResult result;
+    private final long timestamp;
+
+    public RejectionEvent(String accountNumber, double amount, double balance, WithdrawalResult result, long timestamp) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.balance = balance;
+        this.result = result;
+        this.timestamp = timestamp;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+
+    public WithdrawalResult getResult() {
+        return result;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return this.result + " " + this.accountNumber + " " + this.amount + " (balance " + this.balance + ")";
+    }
+}
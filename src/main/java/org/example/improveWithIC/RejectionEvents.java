@@ -0,0 +1,88 @@
+package org.example.improveWithIC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Rejected withdrawals are offered to a bounded ring and handed to the handler in batches by one daemon thread,
+// so a rejection costs the caller a ring slot instead of console I/O. When the ring is full the event is dropped
+// and counted rather than making the withdrawing thread wait.
+public final class RejectionEvents {
+    private static final int CAPACITY = 8192;
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private static final CommandRing<RejectionEvent> RING = new CommandRing<>(CAPACITY);
+    private static final LongAdder ACCEPTED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static volatile long delivered;
+    private static volatile Consumer<List<RejectionEvent>> handler = RejectionEvents::print;
+
+    static {
+        Metrics.registerGauge("bank_rejection_events_dropped", DROPPED::sum);
+        Thread drainer = new Thread(RejectionEvents::drain, "rejection-events");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private RejectionEvents() {
+    }
+
+    static void publish(String accountNumber, double amount, double balance, WithdrawalResult result) {
+        if (RING.offer(new RejectionEvent(accountNumber, amount, balance, result, LedgerClock.now()))) {
+            ACCEPTED.increment();
+        } else {
+            DROPPED.increment();
+        }
+    }
+
+    // The handler runs on the drainer thread and must not keep the batch list after it returns
+    public static void setHandler(Consumer<List<RejectionEvent>> handler) {
+        RejectionEvents.handler = handler;
+    }
+
+    // Waits until every event accepted so far has been handed to the handler
+    public static void flush() {
+        long target = ACCEPTED.sum();
+        while (delivered < target) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    private static void drain() {
+        List<RejectionEvent> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            RejectionEvent event;
+            while (batch.size() < MAX_BATCH && (event = RING.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            // A failing handler loses its batch; the drainer keeps going and the failure is counted. Errors are
+            // caught too, since a dead drainer would leave flush() waiting forever.
+            try {
+                handler.accept(batch);
+            } catch (Throwable e) {
+                Metrics.increment(Metrics.REJECTION_HANDLER_FAILURES);
+            }
+            delivered += batch.size();
+            batch.clear();
+        }
+    }
+
+    private static void print(List<RejectionEvent> batch) {
+        StringBuilder out = new StringBuilder();
+        for (RejectionEvent event : batch) {
+            out.append(event).append(System.lineSeparator());
+        }
+        System.out.print(out);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.example.improveWithIC.interfaces.IOverdraft;
+
+// Overdraft whose limit is looked up in a shared OverdraftPolicy, so repricing a segment needs no account changes
+public class SegmentOverdraft implements IOverdraft {
+    private final OverdraftPolicy policy;
+    private final int segment;
+    private final String segmentName;
+
+    SegmentOverdraft(OverdraftPolicy policy, int segment, String segmentName) {
+        this.policy = policy;
+        this.segment = segment;
+        this.segmentName = segmentName;
+    }
+
+    @Override
+    public boolean canWithdraw(double amount, double balance) {
+        return balance + policy.limit(segment) >= amount;
+    }
+
+    @Override
+    public double getOverdraftLimit() {
+        return policy.limit(segment);
+    }
+
+    public String getSegment() {
+        return segmentName;
+    }
+
+    @Override
+    public long getPolicyVersion() {
+        return policy.getVersion();
+    }
+
+    @Override
+    public void balanceChanged(IAccount account, double oldBalance, double newBalance) {
+        policy.balanceChanged((BankAccount) account, oldBalance, newBalance);
+    }
+}
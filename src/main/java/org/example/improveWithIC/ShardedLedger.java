@@ -0,0 +1,246 @@
+package org.example.improveWithIC;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Single-writer execution mode: accounts are partitioned by account-number hash, and every command submitted here
+// runs on the one thread that owns its account's shard, fed by a lock-free ring. Only ledger commands are serialized:
+// direct deposit, withdraw and interest calls on the same accounts still run on their callers' threads, so the shard
+// threads keep taking account locks and can contend with them. A transfer across shards runs in two phases: the
+// source shard debits, then sends a credit message to the destination shard. The caller's future completes once the
+// credit has been applied.
+public class ShardedLedger implements Closeable {
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final Shard[] shards;
+    private final Thread[] threads;
+    // closing stops intake; closed is set once the shards have stopped and only leftovers remain to be failed
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    public ShardedLedger(int shardCount, int ringCapacity) {
+        shards = new Shard[shardCount];
+        threads = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(ringCapacity);
+            threads[i] = new Thread(shards[i], "ledger-shard-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    public CompletableFuture<Boolean> deposit(BankAccount account, double amount) {
+        return submit(new Command(CommandType.DEPOSIT, account, null, amount));
+    }
+
+    public CompletableFuture<Boolean> withdraw(BankAccount account, double amount) {
+        return submit(new Command(CommandType.WITHDRAW, account, null, amount));
+    }
+
+    public CompletableFuture<Boolean> transfer(BankAccount from, BankAccount to, double amount) {
+        return submit(new Command(CommandType.TRANSFER, from, to, amount));
+    }
+
+    public CompletableFuture<Boolean> calculateInterest(BankAccount account) {
+        return submit(new Command(CommandType.INTEREST, account, null, 0));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Stops accepting commands, lets the shards finish everything already accepted (including credits still
+    // travelling between shards), then stops them. Anything a dead shard left behind completes exceptionally.
+    @Override
+    public void close() {
+        closing = true;
+        while (!quiescent() && allAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        for (Shard shard : shards) {
+            shard.running = false;
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closed = true;
+        for (Shard shard : shards) {
+            shard.failPending();
+        }
+    }
+
+    private CompletableFuture<Boolean> submit(Command command) {
+        if (closing) {
+            return CompletableFuture.failedFuture(new IllegalStateException("ShardedLedger is closed"));
+        }
+        Shard shard = shardOf(command.account);
+        while (!shard.ring.offer(command)) {
+            if (closed) {
+                break;
+            }
+            // Ring full: back off until the shard catches up
+            Thread.onSpinWait();
+        }
+        // Checked after offering: a command that raced with close was either drained by it or is failed here
+        if (closed) {
+            command.reply.completeExceptionally(new IllegalStateException("ShardedLedger is closed"));
+        }
+        return command.reply;
+    }
+
+    // Every shard has executed everything offered to it and has no credits waiting. Only shards create commands
+    // once intake is closed, and each one raises the offered total, so an unchanged total around the check means
+    // no shard left the idle state while it was being looked at.
+    private boolean quiescent() {
+        long before = offeredTotal();
+        for (Shard shard : shards) {
+            if (shard.ring.offered() != shard.completed.get() || shard.outboxSize != 0) {
+                return false;
+            }
+        }
+        return offeredTotal() == before;
+    }
+
+    private long offeredTotal() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.ring.offered();
+        }
+        return total;
+    }
+
+    private boolean allAlive() {
+        for (Thread thread : threads) {
+            if (!thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Shard shardOf(BankAccount account) {
+        return shards[Math.floorMod(account.getAccountNumber().hashCode(), shards.length)];
+    }
+
+    private final class Shard implements Runnable {
+        private final CommandRing<Command> ring;
+        // Credits for other shards wait here when their ring is full, so two shards can never block on each other
+        private final ArrayDeque<Command> outbox = new ArrayDeque<>();
+        private volatile int outboxSize;
+        // Commands taken from the ring and fully executed; written only by the shard thread
+        private final AtomicLong completed = new AtomicLong();
+        private volatile boolean running = true;
+
+        Shard(int ringCapacity) {
+            ring = new CommandRing<>(ringCapacity);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                flushOutbox();
+                Command command = ring.poll();
+                if (command == null) {
+                    if (++idle < IDLE_SPINS) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    continue;
+                }
+                idle = 0;
+                try {
+                    execute(command);
+                } catch (RuntimeException e) {
+                    command.reply.completeExceptionally(e);
+                }
+                completed.lazySet(completed.get() + 1);
+            }
+        }
+
+        // Only called after the shard thread has stopped
+        void failPending() {
+            for (Command command = ring.poll(); command != null; command = ring.poll()) {
+                command.reply.completeExceptionally(new IllegalStateException("ShardedLedger is closed"));
+            }
+            for (Command credit = outbox.poll(); credit != null; credit = outbox.poll()) {
+                credit.reply.completeExceptionally(new IllegalStateException("ShardedLedger closed before a credit was applied"));
+            }
+        }
+
+        private void execute(Command command) {
+            switch (command.type) {
+                case DEPOSIT:
+                    command.account.deposit(command.amount);
+                    command.reply.complete(true);
+                    break;
+                case WITHDRAW:
+                    command.reply.complete(command.account.withdraw(command.amount).isCompleted());
+                    break;
+                case INTEREST:
+                    command.account.calculateInterest();
+                    command.reply.complete(true);
+                    break;
+                case TRANSFER:
+                    if (!command.account.transferOut(command.counterparty, command.amount).isCompleted()) {
+                        command.reply.complete(false);
+                    } else if (shardOf(command.counterparty) == this) {
+                        command.counterparty.transferIn(command.amount);
+                        command.reply.complete(true);
+                    } else {
+                        outbox.add(new Command(CommandType.CREDIT, command.counterparty, null, command.amount, command.reply));
+                        outboxSize = outbox.size();
+                        flushOutbox();
+                    }
+                    break;
+                case CREDIT:
+                    command.account.transferIn(command.amount);
+                    command.reply.complete(true);
+                    break;
+            }
+        }
+
+        private void flushOutbox() {
+            for (Command credit = outbox.peek(); credit != null; credit = outbox.peek()) {
+                if (!shardOf(credit.account).ring.offer(credit)) {
+                    return;
+                }
+                outbox.poll();
+                outboxSize = outbox.size();
+            }
+        }
+    }
+
+    private enum CommandType {
+        DEPOSIT, WITHDRAW, TRANSFER, CREDIT, INTEREST
+    }
+
+    private static class Command {
+        final CommandType type;
+        final BankAccount account;
+        final BankAccount counterparty;
+        final double amount;
+        final CompletableFuture<Boolean> reply;
+
+        Command(CommandType type, BankAccount account, BankAccount counterparty, double amount) {
+            this(type, account, counterparty, amount, new CompletableFuture<>());
+        }
+
+        Command(CommandType type, BankAccount account, BankAccount counterparty, double amount, CompletableFuture<Boolean> reply) {
+            this.type = type;
+            this.account = account;
+            this.counterparty = counterparty;
+            this.amount = amount;
+            this.reply = reply;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccountNumberGenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style ids: 41 bits of milliseconds since EPOCH, 10 bits of node id, 12 bits of sequence.
+// Time and sequence share one AtomicLong, so each id costs a single CAS and never blocks.
+public class SnowflakeAccountNumberGenerator implements IAccountNumberGenerator {
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private final String prefix;
+    private final long node;
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeAccountNumberGenerator() {
+        this("ACC", 0);
+    }
+
+    public SnowflakeAccountNumberGenerator(String prefix, long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE);
+        }
+        this.prefix = prefix;
+        this.node = node;
+    }
+
+    @Override
+    public String nextAccountNumber() {
+        return prefix + nextId();
+    }
+
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+        long prev;
+        long next;
+        do {
+            prev = state.get();
+            // When the sequence overflows within one millisecond it carries into the timestamp,
+            // borrowing from the next millisecond instead of spinning until the clock catches up.
+            next = (prev >>> SEQUENCE_BITS) >= now ? prev + 1 : now << SEQUENCE_BITS;
+        } while (!state.compareAndSet(prev, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
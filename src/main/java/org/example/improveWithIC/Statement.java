@@ -0,0 +1,63 @@
+package org.example.improveWithIC;
+
+public class Statement {
+    private double openingBalance;
+    private double closingBalance;
+    private double totalDeposits;
+    private double totalWithdrawals;
+    private double interestCredited;
+    private double minBalance;
+    private double maxBalance;
+    private long transactionCount;
+
+    public Statement(double openingBalance, double closingBalance, double totalDeposits, double totalWithdrawals,
+                     double interestCredited, double minBalance, double maxBalance, long transactionCount) {
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+        this.totalDeposits = totalDeposits;
+        this.totalWithdrawals = totalWithdrawals;
+        this.interestCredited = interestCredited;
+        this.minBalance = minBalance;
+        this.maxBalance = maxBalance;
+        this.transactionCount = transactionCount;
+    }
+
+    public double getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public double getClosingBalance() {
+        return closingBalance;
+    }
+
+    public double getTotalDeposits() {
+        return totalDeposits;
+    }
+
+    public double getTotalWithdrawals() {
+        return totalWithdrawals;
+    }
+
+    public double getInterestCredited() {
+        return interestCredited;
+    }
+
+    public double getMinBalance() {
+        return minBalance;
+    }
+
+    public double getMaxBalance() {
+        return maxBalance;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "opening " + openingBalance + ", closing " + closingBalance + ", deposits " + totalDeposits
+                + ", withdrawals " + totalWithdrawals + ", interest " + interestCredited + ", min " + minBalance
+                + ", max " + maxBalance + ", transactions " + transactionCount;
+    }
+}
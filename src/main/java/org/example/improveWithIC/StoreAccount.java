@@ -0,0 +1,55 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+
+import java.util.List;
+
+// Flyweight IAccount over one row of an AccountStore. The store keeps no per-account history, so the
+// transaction history is always empty; the audit trail is the TransactionLog given to AccountStore.enableLog.
+public class StoreAccount implements IAccount {
+    private final AccountStore store;
+    private final int id;
+
+    StoreAccount(AccountStore store, int id) {
+        this.store = store;
+        this.id = id;
+    }
+
+    @Override
+    public void deposit(double amount) {
+        store.deposit(id, amount);
+    }
+
+    @Override
+    public WithdrawalResult withdraw(double amount) {
+        return store.withdraw(id, amount);
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory() {
+        return List.of();
+    }
+
+    @Override
+    public double getBalance() {
+        return store.getBalance(id);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getAccountNumber() {
+        return store.getAccountNumber(id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StoreAccount && ((StoreAccount) o).store == store && ((StoreAccount) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+}
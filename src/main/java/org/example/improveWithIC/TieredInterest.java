@@ -0,0 +1,72 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IInterest;
+
+import java.util.Arrays;
+
+// Marginal tiers: rates[i] applies to the part of the balance between thresholds[i] and thresholds[i + 1]
+// (the last tier is open-ended). Negative balances earn nothing.
+public class TieredInterest implements IInterest {
+    private double[] thresholds;
+    private double[] rates;
+
+    public TieredInterest(double[] thresholds, double[] rates) {
+        if (thresholds.length != rates.length || thresholds.length == 0 || thresholds[0] != 0) {
+            throw new IllegalArgumentException("Tiers need one rate per threshold, starting at a threshold of 0");
+        }
+        for (int i = 1; i < thresholds.length; i++) {
+            if (thresholds[i] <= thresholds[i - 1]) {
+                throw new IllegalArgumentException("Tier thresholds must be strictly increasing");
+            }
+        }
+        this.thresholds = thresholds.clone();
+        this.rates = rates.clone();
+    }
+
+    @Override
+    public double calculateInterest(double balance) {
+        double interest = 0;
+        for (int tier = 0; tier < rates.length; tier++) {
+            interest += portion(balance, tier) * rates[tier];
+        }
+        return interest;
+    }
+
+    // Tier-major order keeps the inner loop free of branches and data-dependent indexing
+    @Override
+    public void calculateInterest(double[] balances, double[] accruals, int length) {
+        Arrays.fill(accruals, 0, length, 0);
+        for (int tier = 0; tier < rates.length; tier++) {
+            double lower = thresholds[tier];
+            double upper = tier + 1 < thresholds.length ? thresholds[tier + 1] : Double.POSITIVE_INFINITY;
+            double rate = rates[tier];
+            for (int i = 0; i < length; i++) {
+                accruals[i] += Math.max(0, Math.min(balances[i], upper) - lower) * rate;
+            }
+        }
+    }
+
+    public double[] getThresholds() {
+        return thresholds.clone();
+    }
+
+    public double[] getRates() {
+        return rates.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TieredInterest && Arrays.equals(((TieredInterest) other).thresholds, thresholds)
+                && Arrays.equals(((TieredInterest) other).rates, rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(thresholds) + Arrays.hashCode(rates);
+    }
+
+    private double portion(double balance, int tier) {
+        double upper = tier + 1 < thresholds.length ? thresholds[tier + 1] : Double.POSITIVE_INFINITY;
+        return Math.max(0, Math.min(balance, upper) - thresholds[tier]);
+    }
+}
@@ -20,5 +20,19 @@ public class Transaction {
         return this.type + " " + this.amount + " " + this.date + " " + this.description;
     }
 
-    // Getters and setters can be added as needed
+    public String getType() {
+        return type;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
 }
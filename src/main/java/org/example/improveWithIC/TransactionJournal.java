@@ -0,0 +1,203 @@
+package org.example.improveWithIC;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Column-oriented transaction store: one primitive array per field, split into fixed-size chunks so growing
+// never copies more than the first chunk. An entry costs 21 bytes instead of a Transaction, a Date and two Strings.
+// The first chunk starts small and doubles, so millions of quiet accounts do not each pay for a full chunk.
+// Appends must come from one thread at a time (the owning account's lock); reads are safe at any time.
+public class TransactionJournal {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static final String[] TYPES = {"deposit", "withdrawal", "interest"};
+    private static final Map<String, Integer> DESCRIPTION_IDS = new ConcurrentHashMap<>();
+    private static volatile String[] descriptions = new String[0];
+
+    private Columns columns = new Columns(0);
+    private long lastTimestamp = Long.MIN_VALUE;
+    // Entries normally arrive in time order, which lets queries binary-search the timestamp column.
+    // An out-of-order append (e.g. replaying a log written under a different clock) falls back to scanning.
+    private volatile boolean timeOrdered = true;
+    // Written last on append, so a reader that sees a size also sees every entry below it
+    private volatile int size;
+
+    public void append(String type, double amount, long timestamp, String description) {
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        int offset = index & CHUNK_MASK;
+        Columns columns = this.columns;
+        if (chunk == columns.timestamps.length) {
+            columns = this.columns = columns.withChunks(Math.max(1, chunk * 2));
+        }
+        if (columns.timestamps[chunk] == null) {
+            columns.allocate(chunk, chunk == 0 ? INITIAL_CAPACITY : CHUNK_SIZE);
+        } else if (offset == columns.timestamps[chunk].length) {
+            columns = this.columns = columns.withFirstChunk(offset * 2);
+        }
+        columns.timestamps[chunk][offset] = timestamp;
+        columns.amounts[chunk][offset] = Double.doubleToRawLongBits(amount);
+        columns.types[chunk][offset] = typeCode(type);
+        columns.descriptionIds[chunk][offset] = descriptionId(description);
+        if (timestamp < lastTimestamp) {
+            timeOrdered = false;
+        }
+        lastTimestamp = timestamp;
+        size = index + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Transaction get(int index) {
+        int chunk = index >>> CHUNK_SHIFT;
+        int offset = index & CHUNK_MASK;
+        Columns columns = this.columns;
+        return new Transaction(TYPES[columns.types[chunk][offset]],
+                Double.longBitsToDouble(columns.amounts[chunk][offset]),
+                new Date(columns.timestamps[chunk][offset]),
+                descriptions[columns.descriptionIds[chunk][offset]]);
+    }
+
+    // Read-only view of the entries present at call time; Transactions are built only when accessed
+    public List<Transaction> view() {
+        int fixedSize = size;
+        return new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                if (index < 0 || index >= fixedSize) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fixedSize);
+                }
+                return TransactionJournal.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return fixedSize;
+            }
+        };
+    }
+
+    // Streams matches lazily over the entries present at call time; only the entries returned are materialized
+    public Stream<Transaction> query(HistoryQuery query) {
+        int count = size;
+        Columns columns = this.columns;
+        int from = 0;
+        int to = count;
+        if (timeOrdered) {
+            from = firstAtOrAfter(columns, query.getFrom(), count);
+            to = firstAtOrAfter(columns, query.getTo(), count);
+        }
+        int first = from;
+        int last = to - 1;
+        IntStream indexes = query.isNewestFirst()
+                ? IntStream.rangeClosed(first, last).map(i -> last - (i - first))
+                : IntStream.range(from, to);
+        int type = query.getType() == null ? -1 : typeCode(query.getType());
+        long fromTime = query.getFrom();
+        long toTime = query.getTo();
+        return indexes
+                .filter(i -> {
+                    long timestamp = columns.timestamps[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+                    return timestamp >= fromTime && timestamp < toTime
+                            && (type < 0 || columns.types[i >>> CHUNK_SHIFT][i & CHUNK_MASK] == type);
+                })
+                .limit(query.getLimit())
+                .mapToObj(this::get);
+    }
+
+    private static int firstAtOrAfter(Columns columns, long timestamp, int count) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (columns.timestamps[middle >>> CHUNK_SHIFT][middle & CHUNK_MASK] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static byte typeCode(String type) {
+        for (byte code = 0; code < TYPES.length; code++) {
+            if (TYPES[code].equals(type)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + type);
+    }
+
+    private static int descriptionId(String description) {
+        Integer id = DESCRIPTION_IDS.get(description);
+        return id != null ? id : internDescription(description);
+    }
+
+    private static synchronized int internDescription(String description) {
+        Integer id = DESCRIPTION_IDS.get(description);
+        if (id != null) {
+            return id;
+        }
+        String[] grown = Arrays.copyOf(descriptions, descriptions.length + 1);
+        grown[grown.length - 1] = description;
+        descriptions = grown;
+        DESCRIPTION_IDS.put(description, grown.length - 1);
+        return grown.length - 1;
+    }
+
+    // Arrays are replaced rather than resized in place when the chunk table or the first chunk grows.
+    // The final fields guarantee a reader that picks up a new Columns also sees everything copied into it.
+    private static final class Columns {
+        final long[][] timestamps;
+        final long[][] amounts;
+        final byte[][] types;
+        final int[][] descriptionIds;
+
+        Columns(int chunks) {
+            this(new long[chunks][], new long[chunks][], new byte[chunks][], new int[chunks][]);
+        }
+
+        private Columns(long[][] timestamps, long[][] amounts, byte[][] types, int[][] descriptionIds) {
+            this.timestamps = timestamps;
+            this.amounts = amounts;
+            this.types = types;
+            this.descriptionIds = descriptionIds;
+        }
+
+        void allocate(int chunk, int capacity) {
+            timestamps[chunk] = new long[capacity];
+            amounts[chunk] = new long[capacity];
+            types[chunk] = new byte[capacity];
+            descriptionIds[chunk] = new int[capacity];
+        }
+
+        Columns withChunks(int chunks) {
+            return new Columns(Arrays.copyOf(timestamps, chunks), Arrays.copyOf(amounts, chunks),
+                    Arrays.copyOf(types, chunks), Arrays.copyOf(descriptionIds, chunks));
+        }
+
+        // Only the first chunk is ever undersized, so it is the only one that grows
+        Columns withFirstChunk(int capacity) {
+            long[][] grownTimestamps = timestamps.clone();
+            long[][] grownAmounts = amounts.clone();
+            byte[][] grownTypes = types.clone();
+            int[][] grownDescriptionIds = descriptionIds.clone();
+            grownTimestamps[0] = Arrays.copyOf(timestamps[0], capacity);
+            grownAmounts[0] = Arrays.copyOf(amounts[0], capacity);
+            grownTypes[0] = Arrays.copyOf(types[0], capacity);
+            grownDescriptionIds[0] = Arrays.copyOf(descriptionIds[0], capacity);
+            return new Columns(grownTimestamps, grownAmounts, grownTypes, grownDescriptionIds);
+        }
+    }
+}
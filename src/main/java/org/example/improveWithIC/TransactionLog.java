@@ -0,0 +1,436 @@
+package org.example.improveWithIC;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// Append-only write-ahead log of balance changes, written through memory-mapped segments of fixed-size records.
+// An append claims its slot with one atomic add on the tail and copies the record in without taking a lock.
+// Records become visible to the flusher strictly in position order. The flusher thread forces everything written
+// so far with one fsync per pass, outside any append path, so all callers waiting in awaitDurable share it
+// (group commit). Every record carries a CRC32C, so a torn or half-written tail is detected and ignored on replay.
+// A transfer is logged as a debit record immediately followed by its credit record; replay hands both legs to the
+// handler as a WITHDRAWAL and a DEPOSIT, or, if the credit never made it to disk, stops before the debit.
+public class TransactionLog implements Closeable {
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAWAL = 2;
+    public static final byte INTEREST = 3;
+    static final byte TRANSFER_DEBIT = 4;
+    static final byte TRANSFER_CREDIT = 5;
+
+    // [type:1][reserved:3][checksum:4][timestamp:8][amount:8][account number:ACCOUNT_NUMBER_BYTES]
+    static final int ACCOUNT_NUMBER_BYTES = 40;
+    static final int RECORD_SIZE = 24 + ACCOUNT_NUMBER_BYTES;
+    private static final int CHECKSUM_OFFSET = 4;
+    private static final long SEGMENT_SIZE = RECORD_SIZE * (1L << 20);
+    private static final int SPINS_BEFORE_YIELD = 100;
+    private static final ThreadLocal<RecordEncoder> ENCODERS = ThreadLocal.withInitial(RecordEncoder::new);
+
+    private final FileChannel channel;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+    private final AtomicLong tail = new AtomicLong();
+    // Every record below written is completely copied in; every record below durable has been forced to disk
+    private volatile long written;
+    private volatile long durable;
+    private volatile long requested;
+    private volatile boolean closed;
+    // Set when an append could not copy its record in. The slot stays a hole that replay stops at, so nothing at
+    // or after it may be reported written or durable; every later append and wait throws instead.
+    private volatile Throwable failure;
+    // Indexed by segment number; a segment is dropped once it is durable and no longer being written
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition durableAdvanced = flushLock.newCondition();
+
+    // flushIntervalMillis bounds how long an appended record may stay unforced when nobody is waiting for it
+    public TransactionLog(Path file, long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long end = scan(channel, 0, null);
+            clearAfter(end);
+            tail.set(end);
+            written = end;
+            durable = end;
+            requested = end;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flusher = new Thread(this::runFlusher, "transaction-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public long append(byte type, String accountNumber, double amount, long timestamp) {
+        return append(type, encodeAccountNumber(accountNumber), amount, timestamp);
+    }
+
+    // Takes the account number pre-encoded (see encodeAccountNumber) so appends allocate nothing.
+    // Returns the position just past the record; pass it to awaitDurable to wait until the record is on disk.
+    public long append(byte type, byte[] accountNumber, double amount, long timestamp) {
+        RecordEncoder encoder = ENCODERS.get();
+        encoder.encode(0, type, accountNumber, amount, timestamp);
+        return write(encoder.records, RECORD_SIZE);
+    }
+
+    // Logs both legs of a transfer in two adjacent slots claimed together, so no other record can separate them.
+    // Returns the position just past the credit.
+    public long appendTransfer(byte[] fromAccountNumber, byte[] toAccountNumber, double amount, long timestamp) {
+        RecordEncoder encoder = ENCODERS.get();
+        encoder.encode(0, TRANSFER_DEBIT, fromAccountNumber, amount, timestamp);
+        encoder.encode(RECORD_SIZE, TRANSFER_CREDIT, toAccountNumber, amount, timestamp);
+        return write(encoder.records, 2 * RECORD_SIZE);
+    }
+
+    private long write(byte[] records, int length) {
+        if (closed) {
+            throw new IllegalStateException("Transaction log is closed");
+        }
+        checkNotFailed();
+        long at = tail.getAndAdd(length);
+        try {
+            // Record by record: the two records of a transfer may fall either side of a segment boundary
+            for (int offset = 0; offset < length; offset += RECORD_SIZE) {
+                long slot = at + offset;
+                segment(slot / SEGMENT_SIZE).put((int) (slot % SEGMENT_SIZE), records, offset, RECORD_SIZE);
+            }
+        } catch (RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        }
+        // Publish in position order, so written never covers a slot that is still being copied
+        for (int spins = 0; written != at; spins++) {
+            checkNotFailed();
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        written = at + length;
+        return at + length;
+    }
+
+    // Blocks until every record below position has been forced to disk
+    public void awaitDurable(long position) {
+        if (durable >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (requested < position) {
+                requested = position;
+                flushRequested.signal();
+            }
+            while (durable < position) {
+                checkNotFailed();
+                if (!flusher.isAlive()) {
+                    throw new IllegalStateException("Transaction log flusher has stopped");
+                }
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Makes every record appended so far durable
+    public void flush() {
+        awaitDurable(written);
+    }
+
+    // Position the next record will be written at; a record's position orders it against a checkpoint
+    public long position() {
+        return tail.get();
+    }
+
+    public void replay(RecordHandler handler) {
+        replay(0, handler);
+    }
+
+    // Replays records from fromPosition up to the first missing, torn or corrupt record
+    public void replay(long fromPosition, RecordHandler handler) {
+        try {
+            scan(channel, fromPosition, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Reads a log file without opening it for writing: no flusher, no recovery, and a missing file is a
+    // NoSuchFileException rather than a new empty log. Returns the position just past the last valid record.
+    public static long read(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, 0, handler);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            closed = true;
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    public static byte[] encodeAccountNumber(String accountNumber) {
+        byte[] number = accountNumber.getBytes(StandardCharsets.US_ASCII);
+        if (number.length > ACCOUNT_NUMBER_BYTES) {
+            throw new IllegalArgumentException("Account number too long for log record: " + accountNumber);
+        }
+        return number;
+    }
+
+    public interface RecordHandler {
+        void onRecord(long position, byte type, String accountNumber, double amount, long timestamp);
+    }
+
+    private void checkNotFailed() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Transaction log failed to write a record", cause);
+        }
+    }
+
+    // Records the first failure and wakes waiters so they throw rather than wait for a position that never comes
+    private void fail(Throwable cause) {
+        flushLock.lock();
+        try {
+            if (failure == null) {
+                failure = cause;
+            }
+            durableAdvanced.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        try {
+            while (true) {
+                flushLock.lock();
+                try {
+                    if (requested <= durable && !closed) {
+                        flushRequested.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    flushLock.unlock();
+                }
+                long target = written;
+                if (target > durable) {
+                    force(durable, target);
+                    flushLock.lock();
+                    try {
+                        durable = target;
+                        durableAdvanced.signalAll();
+                    } finally {
+                        flushLock.unlock();
+                    }
+                } else if (closed) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Wake any waiters so they see the flusher is gone instead of blocking forever
+            flushLock.lock();
+            try {
+                durableAdvanced.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void force(long from, long to) {
+        MappedByteBuffer[] mapped = segments;
+        for (long index = from / SEGMENT_SIZE; index * SEGMENT_SIZE < to; index++) {
+            long start = Math.max(from, index * SEGMENT_SIZE);
+            long end = Math.min(to, (index + 1) * SEGMENT_SIZE);
+            mapped[(int) index].force((int) (start - index * SEGMENT_SIZE), (int) (end - start));
+            if (end == (index + 1) * SEGMENT_SIZE) {
+                release((int) index);
+            }
+        }
+    }
+
+    private MappedByteBuffer segment(long index) {
+        MappedByteBuffer[] mapped = segments;
+        if (index < mapped.length && mapped[(int) index] != null) {
+            return mapped[(int) index];
+        }
+        synchronized (this) {
+            mapped = segments;
+            if (index >= mapped.length) {
+                mapped = Arrays.copyOf(mapped, (int) index + 2);
+            } else if (mapped[(int) index] != null) {
+                return mapped[(int) index];
+            } else {
+                mapped = mapped.clone();
+            }
+            try {
+                mapped[(int) index] = channel.map(FileChannel.MapMode.READ_WRITE, index * SEGMENT_SIZE, SEGMENT_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments = mapped;
+            return mapped[(int) index];
+        }
+    }
+
+    // A fully forced segment is never written again, so the flusher lets go of its mapping
+    private synchronized void release(int index) {
+        MappedByteBuffer[] mapped = segments.clone();
+        mapped[index] = null;
+        segments = mapped;
+    }
+
+    // Records after the first invalid one may be left over from before a crash. They are zeroed so that new
+    // appends starting at end can never be followed on replay by stale records.
+    private void clearAfter(long end) throws IOException {
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+        byte[] zeros = new byte[RECORD_SIZE];
+        for (long start = end; start < size; start += SEGMENT_SIZE) {
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(SEGMENT_SIZE, size - start));
+            boolean cleared = false;
+            for (int offset = 0; offset < records.capacity(); offset += RECORD_SIZE) {
+                if (records.get(offset) != 0) {
+                    records.put(offset, zeros);
+                    cleared = true;
+                }
+            }
+            if (cleared) {
+                records.force();
+            }
+        }
+    }
+
+    // Walks valid records from fromPosition, handing each to handler (if any), and returns where the log ends:
+    // at the first record that is zeroed, torn or fails its checksum, or at a transfer debit whose credit is not
+    // right behind it. Maps at most one segment at a time.
+    static long scan(FileChannel channel, long fromPosition, RecordHandler handler) throws IOException {
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+        RecordReader reader = new RecordReader(channel, size);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        ByteBuffer credit = ByteBuffer.allocate(RECORD_SIZE);
+        CRC32C crc = new CRC32C();
+        for (long at = fromPosition; at < size; at += RECORD_SIZE) {
+            reader.read(at, record.array());
+            if (!isValid(crc, record) || record.get(0) == TRANSFER_CREDIT) {
+                return at;
+            }
+            if (record.get(0) != TRANSFER_DEBIT) {
+                onRecord(handler, at, record.get(0), record);
+                continue;
+            }
+            // A debit without its credit is a transfer cut short by a crash: neither leg happened
+            if (at + RECORD_SIZE == size) {
+                return at;
+            }
+            reader.read(at + RECORD_SIZE, credit.array());
+            if (!isValid(crc, credit) || credit.get(0) != TRANSFER_CREDIT) {
+                return at;
+            }
+            onRecord(handler, at, WITHDRAWAL, record);
+            at += RECORD_SIZE;
+            onRecord(handler, at, DEPOSIT, credit);
+        }
+        return size;
+    }
+
+    private static boolean isValid(CRC32C crc, ByteBuffer record) {
+        return record.get(0) != 0 && checksum(crc, record.array()) == record.getInt(CHECKSUM_OFFSET);
+    }
+
+    private static void onRecord(RecordHandler handler, long position, byte type, ByteBuffer record) {
+        if (handler != null) {
+            handler.onRecord(position, type, accountNumber(record.array()), record.getDouble(16), record.getLong(8));
+        }
+    }
+
+    // Covers the type byte and everything after the checksum field
+    private static int checksum(CRC32C crc, byte[] record) {
+        crc.reset();
+        crc.update(record[0]);
+        crc.update(record, 8, RECORD_SIZE - 8);
+        return (int) crc.getValue();
+    }
+
+    private static String accountNumber(byte[] record) {
+        int length = 0;
+        while (length < ACCOUNT_NUMBER_BYTES && record[24 + length] != 0) {
+            length++;
+        }
+        return new String(record, 24, length, StandardCharsets.US_ASCII);
+    }
+
+    // Reads records through a read-only mapping of at most one segment, moved forward as the reads pass its end
+    private static final class RecordReader {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        RecordReader(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        void read(long at, byte[] record) throws IOException {
+            if (window == null || at - windowStart >= window.capacity()) {
+                windowStart = at;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, at, Math.min(SEGMENT_SIZE, size - at));
+            }
+            window.get((int) (at - windowStart), record);
+        }
+    }
+
+    // Per-thread scratch records (room for a transfer's two), so checksums are computed before the slots are claimed
+    // and appends stay allocation-free. BookExporter uses one directly to write files in the log's format.
+    static final class RecordEncoder {
+        private final byte[] records = new byte[2 * RECORD_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(records);
+        private final CRC32C crc = new CRC32C();
+        private final byte[] record = new byte[RECORD_SIZE];
+        private final ByteBuffer fields = ByteBuffer.wrap(record);
+
+        // Returns a scratch record that the next call overwrites
+        byte[] encode(byte type, byte[] accountNumber, double amount, long timestamp) {
+            fields.put(0, type);
+            fields.putLong(8, timestamp);
+            fields.putDouble(16, amount);
+            fields.put(24, accountNumber);
+            Arrays.fill(record, 24 + accountNumber.length, RECORD_SIZE, (byte) 0);
+            fields.putInt(CHECKSUM_OFFSET, checksum(crc, record));
+            return record;
+        }
+
+        private void encode(int offset, byte type, byte[] accountNumber, double amount, long timestamp) {
+            buffer.put(offset, encode(type, accountNumber, amount, timestamp));
+        }
+    }
+}
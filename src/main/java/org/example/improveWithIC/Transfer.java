@@ -0,0 +1,27 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+
+public class Transfer {
+    private IAccount from;
+    private IAccount to;
+    private double amount;
+
+    public Transfer(IAccount from, IAccount to, double amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+
+    public IAccount getFrom() {
+        return from;
+    }
+
+    public IAccount getTo() {
+        return to;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
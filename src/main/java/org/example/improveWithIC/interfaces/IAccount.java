@@ -1,14 +1,29 @@
 package org.example.improveWithIC.interfaces;
 
+import org.example.improveWithIC.HistoryQuery;
 import org.example.improveWithIC.Transaction;
+import org.example.improveWithIC.WithdrawalResult;
 
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public interface IAccount {
     void deposit(double amount);
 
-    void withdraw(double amount);
+    WithdrawalResult withdraw(double amount);
+
+    double getBalance();
 
     List<Transaction> getTransactionHistory();
+
+    // Lazily streams the matching part of the history; implementations with a time index avoid a full scan
+    default Stream<Transaction> queryHistory(HistoryQuery query) {
+        List<Transaction> history = getTransactionHistory();
+        Stream<Transaction> ordered = query.isNewestFirst()
+                ? IntStream.range(0, history.size()).mapToObj(i -> history.get(history.size() - 1 - i))
+                : history.stream();
+        return ordered.filter(query::matches).limit(query.getLimit());
+    }
 }
 
@@ -1,5 +1,18 @@
 package org.example.improveWithIC.interfaces;
 
+import org.example.improveWithIC.OverdraftPolicy;
+
 public interface IAccountFactory {
     IAccount createAccount(String type, String accountNumber, double initialBalance, double additionalInfo);
+
+    int productCode(String name);
+
+    IAccount createAccount(int productCode, String accountNumber, double initialBalance);
+
+    String nextAccountNumber();
+
+    // The policy that segment overdrafts are bound to, needed to restore them from a snapshot or book
+    default OverdraftPolicy getOverdraftPolicy() {
+        return null;
+    }
 }
@@ -0,0 +1,5 @@
+package org.example.improveWithIC.interfaces;
+
+public interface IAccountNumberGenerator {
+    String nextAccountNumber();
+}
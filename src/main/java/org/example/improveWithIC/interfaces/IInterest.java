@@ -2,4 +2,12 @@ package org.example.improveWithIC.interfaces;
 
 public interface IInterest {
     double calculateInterest(double balance);
+
+    // Batch form for large accrual runs: fills accruals[0..length) from balances[0..length).
+    // Implementations override it with a branch-free loop the JIT can auto-vectorize.
+    default void calculateInterest(double[] balances, double[] accruals, int length) {
+        for (int i = 0; i < length; i++) {
+            accruals[i] = calculateInterest(balances[i]);
+        }
+    }
 }
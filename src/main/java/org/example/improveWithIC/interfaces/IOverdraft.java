@@ -2,4 +2,14 @@ package org.example.improveWithIC.interfaces;
 
 public interface IOverdraft {
     boolean canWithdraw(double amount, double balance);
+
+    double getOverdraftLimit();
+
+    // Changes whenever the limit may have changed; fixed limits never change
+    default long getPolicyVersion() {
+        return 0;
+    }
+
+    default void balanceChanged(IAccount account, double oldBalance, double newBalance) {
+    }
 }
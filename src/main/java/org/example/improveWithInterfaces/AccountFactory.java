@@ -1,24 +1,74 @@
 package org.example.improveWithInterfaces;
 
-import org.example.improveWithInterfaces.accounts.BankAccount;
-import org.example.improveWithInterfaces.accounts.CheckingAccount;
-import org.example.improveWithInterfaces.accounts.LoanAccount;
-import org.example.improveWithInterfaces.accounts.SavingsAccount;
 import org.example.improveWithInterfaces.interfaces.IAccount;
 import org.example.improveWithInterfaces.interfaces.IAccountFactory;
+import org.example.improveWithInterfaces.interfaces.IAccountNumberGenerator;
+import org.example.improveWithInterfaces.interfaces.IAccountProduct;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Products are registered under a name and get a dense int code, so callers resolve a type once instead of per account
 public class AccountFactory implements IAccountFactory {
+    private IAccountNumberGenerator accountNumberGenerator;
+    private final Map<String, Integer> productCodes = new ConcurrentHashMap<>();
+    private volatile IAccountProduct[] products = new IAccountProduct[0];
+
+    public AccountFactory() {
+        this(new SnowflakeAccountNumberGenerator());
+    }
+
+    public AccountFactory(IAccountNumberGenerator accountNumberGenerator) {
+        this.accountNumberGenerator = accountNumberGenerator;
+    }
+
+    // Registering an existing name replaces its product and keeps its code
+    public synchronized int register(String name, IAccountProduct product) {
+        Integer existing = productCodes.get(name);
+        int code = existing != null ? existing : products.length;
+        IAccountProduct[] updated = Arrays.copyOf(products, Math.max(products.length, code + 1));
+        updated[code] = product;
+        products = updated;
+        productCodes.put(name, code);
+        return code;
+    }
+
+    @Override
+    public int productCode(String name) {
+        Integer code = productCodes.get(name);
+        if (code == null) {
+            throw new IllegalArgumentException("Unknown product: " + name);
+        }
+        return code;
+    }
+
+    @Override
+    public IAccount createAccount(int productCode, String accountNumber, double initialBalance) {
+        IAccountProduct[] registered = products;
+        if (productCode < 0 || productCode >= registered.length) {
+            throw new IllegalArgumentException("Unknown product code: " + productCode);
+        }
+        return registered[productCode].create(accountNumber, initialBalance);
+    }
+
+    // Registered products take precedence and are configured at registration, so they reject a non-zero
+    // additionalInfo rather than silently ignore it; otherwise type must be a built-in AccountType
     @Override
     public IAccount createAccount(String type, String accountNumber, double initialBalance, double additionalInfo) {
-        switch (type) {
-            case "checking":
-                return new CheckingAccount(accountNumber, initialBalance, additionalInfo);
-            case "savings":
-                return new SavingsAccount(accountNumber, initialBalance, additionalInfo);
-            case "loan":
-                return new LoanAccount(accountNumber, initialBalance, additionalInfo);
-            default:
-                return new BankAccount(accountNumber, initialBalance);
+        Integer code = productCodes.get(type);
+        if (code != null) {
+            if (additionalInfo != 0) {
+                throw new IllegalArgumentException("Product " + type
+                        + " is configured at registration and takes no additionalInfo, got " + additionalInfo);
+            }
+            return createAccount(code, accountNumber, initialBalance);
         }
+        return AccountType.of(type).create(accountNumber, initialBalance, additionalInfo);
+    }
+
+    @Override
+    public String nextAccountNumber() {
+        return accountNumberGenerator.nextAccountNumber();
     }
 }
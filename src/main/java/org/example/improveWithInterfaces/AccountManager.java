@@ -3,40 +3,61 @@ package org.example.improveWithInterfaces;
 import org.example.improveWithInterfaces.interfaces.IAccount;
 import org.example.improveWithInterfaces.interfaces.IAccountFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AccountManager {
-    private List<Customer> customers = new ArrayList<>();
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Map<String, Customer> customers;
+    private Map<String, IAccount> accounts;
     private IAccountFactory accountFactory;
 
     public AccountManager(IAccountFactory accountFactory) {
+        this(accountFactory, DEFAULT_CAPACITY);
+    }
+
+    // initialCapacity is the number of accounts expected, so onboarding them never resizes the indexes
+    public AccountManager(IAccountFactory accountFactory, int initialCapacity) {
         this.accountFactory = accountFactory;
+        this.customers = new ConcurrentHashMap<>(initialCapacity);
+        this.accounts = new ConcurrentHashMap<>(initialCapacity);
     }
 
     public IAccount createAccount(String type, String customerName, double initialBalance, double additionalInfo) {
-        IAccount account = accountFactory.createAccount(type, "ACC" + System.currentTimeMillis(), initialBalance, additionalInfo);
+        String accountNumber = accountFactory.nextAccountNumber();
+        IAccount account = accountFactory.createAccount(type, accountNumber, initialBalance, additionalInfo);
+        return register(accountNumber, account, customerName);
+    }
+
+    public IAccount createAccount(int productCode, String customerName, double initialBalance) {
+        String accountNumber = accountFactory.nextAccountNumber();
+        return register(accountNumber, accountFactory.createAccount(productCode, accountNumber, initialBalance), customerName);
+    }
 
-        Customer customer = findCustomerByName(customerName);
-        if (customer == null) {
-            customer = new Customer(customerName);
-            customers.add(customer);
+    private IAccount register(String accountNumber, IAccount account, String customerName) {
+        if (accounts.putIfAbsent(accountNumber, account) != null) {
+            throw new IllegalStateException("Duplicate account number " + accountNumber);
         }
+
+        Customer customer = customers.computeIfAbsent(customerName, Customer::new);
         customer.addAccount(account);
         return account;
     }
 
-    public void transferFunds(IAccount accountFrom, IAccount accountTo, double amount) {
-        accountFrom.withdraw(amount);
-        accountTo.deposit(amount);
+    public WithdrawalResult transferFunds(IAccount accountFrom, IAccount accountTo, double amount) {
+        WithdrawalResult result = accountFrom.withdraw(amount);
+        if (result.isCompleted()) {
+            accountTo.deposit(amount);
+        }
+        return result;
     }
 
-    private Customer findCustomerByName(String name) {
-        for (Customer customer : customers) {
-            if (customer.getName().equals(name)) {
-                return customer;
-            }
-        }
-        return null;
+    public Customer findCustomerByName(String name) {
+        return customers.get(name);
+    }
+
+    public IAccount findAccount(String accountNumber) {
+        return accounts.get(accountNumber);
     }
 }
@@ -0,0 +1,58 @@
+package org.example.improveWithInterfaces;
+
+import org.example.improveWithInterfaces.accounts.BankAccount;
+import org.example.improveWithInterfaces.accounts.CheckingAccount;
+import org.example.improveWithInterfaces.accounts.LoanAccount;
+import org.example.improveWithInterfaces.accounts.SavingsAccount;
+import org.example.improveWithInterfaces.interfaces.IAccount;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The built-in types behind createAccount(type, ..., additionalInfo), where additionalInfo is the overdraft limit
+// for checking accounts and the interest rate for savings and loans
+public enum AccountType {
+    CHECKING("checking"),
+    SAVINGS("savings"),
+    LOAN("loan"),
+    BASIC("basic");
+
+    private static final Map<String, AccountType> BY_NAME = new HashMap<>();
+
+    static {
+        for (AccountType type : values()) {
+            BY_NAME.put(type.name, type);
+        }
+    }
+
+    private final String name;
+
+    AccountType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static AccountType of(String name) {
+        AccountType type = BY_NAME.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown account type: " + name);
+        }
+        return type;
+    }
+
+    IAccount create(String accountNumber, double initialBalance, double additionalInfo) {
+        switch (this) {
+            case CHECKING:
+                return new CheckingAccount(accountNumber, initialBalance, additionalInfo);
+            case SAVINGS:
+                return new SavingsAccount(accountNumber, initialBalance, additionalInfo);
+            case LOAN:
+                return new LoanAccount(accountNumber, initialBalance, additionalInfo);
+            default:
+                return new BankAccount(accountNumber, initialBalance);
+        }
+    }
+}
@@ -2,12 +2,12 @@ package org.example.improveWithInterfaces;
 
 import org.example.improveWithInterfaces.interfaces.IAccount;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class Customer {
     private String name;
-    private List<IAccount> accounts = new ArrayList<>();
+    private Queue<IAccount> accounts = new ConcurrentLinkedQueue<>();
 
     public Customer(String name) {
         this.name = name;
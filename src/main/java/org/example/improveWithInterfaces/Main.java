@@ -17,7 +17,7 @@ public class Main {
 
         // Perform transactions
         checkingAccount.deposit(200);
-        checkingAccount.withdraw(300);
+        reportRejection(checkingAccount.withdraw(300));
 
         // Calculate interest if the account is interest-bearing0111111
         if (savingsAccount instanceof IInterestBearingAccount) {
@@ -25,7 +25,7 @@ public class Main {
         }
 
         // Transfer funds
-        accountManager.transferFunds(checkingAccount, savingsAccount, 100);
+        reportRejection(accountManager.transferFunds(checkingAccount, savingsAccount, 100));
 
         // Display transaction history
         displayTransactions(checkingAccount);
@@ -39,4 +39,13 @@ public class Main {
             System.out.println(transaction.toString());
         }
     }
+
+    // withdraw only reports the outcome; telling the user about a rejection is the caller's job
+    private static void reportRejection(WithdrawalResult result) {
+        if (result == WithdrawalResult.INSUFFICIENT_FUNDS) {
+            System.out.println("Insufficient funds");
+        } else if (result == WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED) {
+            System.out.println("Overdraft limit exceeded");
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package org.example.improveWithInterfaces;
+
+public enum WithdrawalResult {
+    COMPLETED,
+    OVERDRAWN,
+    INSUFFICIENT_FUNDS,
+    OVERDRAFT_LIMIT_EXCEEDED;
+
+    public boolean isCompleted() {
+        return this == COMPLETED || this == OVERDRAWN;
+    }
+}
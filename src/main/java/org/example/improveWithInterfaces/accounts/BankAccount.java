@@ -1,6 +1,7 @@
 package org.example.improveWithInterfaces.accounts;
 
 import org.example.improveWithInterfaces.Transaction;
+import org.example.improveWithInterfaces.WithdrawalResult;
 import org.example.improveWithInterfaces.interfaces.IAccount;
 
 import java.util.ArrayList;
@@ -24,13 +25,13 @@ public class BankAccount implements IAccount {
     }
 
     @Override
-    public void withdraw(double amount) {
+    public WithdrawalResult withdraw(double amount) {
         if (balance >= amount) {
             balance -= amount;
             transactions.add(new Transaction("withdrawal", amount, new Date(), "Withdrawal made"));
-        } else {
-            System.out.println("Insufficient funds");
+            return WithdrawalResult.COMPLETED;
         }
+        return WithdrawalResult.INSUFFICIENT_FUNDS;
     }
 
     @Override
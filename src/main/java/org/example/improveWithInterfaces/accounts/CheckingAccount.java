@@ -1,6 +1,7 @@
 package org.example.improveWithInterfaces.accounts;
 
 import org.example.improveWithInterfaces.Transaction;
+import org.example.improveWithInterfaces.WithdrawalResult;
 
 import java.util.Date;
 
@@ -13,12 +14,12 @@ public class CheckingAccount extends BankAccount {
     }
 
     @Override
-    public void withdraw(double amount) {
+    public WithdrawalResult withdraw(double amount) {
         if (balance + overdraftLimit >= amount) {
             balance -= amount;
             transactions.add(new Transaction("withdrawal", amount, new Date(), "Withdrawal with overdraft"));
-        } else {
-            System.out.println("Overdraft limit exceeded");
+            return balance < 0 ? WithdrawalResult.OVERDRAWN : WithdrawalResult.COMPLETED;
         }
+        return WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED;
     }
 }
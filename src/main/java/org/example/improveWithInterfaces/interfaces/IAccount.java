@@ -1,13 +1,14 @@
 package org.example.improveWithInterfaces.interfaces;
 
 import org.example.improveWithInterfaces.Transaction;
+import org.example.improveWithInterfaces.WithdrawalResult;
 
 import java.util.List;
 
 public interface IAccount {
     void deposit(double amount);
 
-    void withdraw(double amount);
+    WithdrawalResult withdraw(double amount);
 
     List<Transaction> getTransactionHistory();
 }
@@ -2,4 +2,10 @@ package org.example.improveWithInterfaces.interfaces;
 
 public interface IAccountFactory {
     IAccount createAccount(String type, String accountNumber, double initialBalance, double additionalInfo);
+
+    int productCode(String name);
+
+    IAccount createAccount(int productCode, String accountNumber, double initialBalance);
+
+    String nextAccountNumber();
 }
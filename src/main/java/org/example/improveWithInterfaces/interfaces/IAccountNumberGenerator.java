@@ -0,0 +1,5 @@
+package org.example.improveWithInterfaces.interfaces;
+
+public interface IAccountNumberGenerator {
+    String nextAccountNumber();
+}
@@ -0,0 +1,6 @@
+package org.example.improveWithInterfaces.interfaces;
+
+// A registered account type: a fully configured template that stamps out accounts
+public interface IAccountProduct {
+    IAccount create(String accountNumber, double initialBalance);
+}
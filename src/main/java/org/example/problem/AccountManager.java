@@ -5,51 +5,67 @@ import org.example.problem.accounts.CheckingAccount;
 import org.example.problem.accounts.LoanAccount;
 import org.example.problem.accounts.SavingsAccount;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AccountManager {
-    private List<Customer> customers = new ArrayList<>();
+    private Map<String, Customer> customers = new ConcurrentHashMap<>();
+    private Map<String, BankAccount> accounts = new ConcurrentHashMap<>();
 
     public BankAccount createAccount(String type, String customerName, double initialBalance, double additionalInfo) {
-        BankAccount account;
+        String accountNumber = prefixFor(type) + System.currentTimeMillis();
+        BankAccount account = newAccount(type, accountNumber, initialBalance, additionalInfo);
+        // Two accounts opened in the same millisecond get the same number, so suffix until the number is free
+        for (int retry = 1; accounts.putIfAbsent(account.getAccountNumber(), account) != null; retry++) {
+            account = newAccount(type, accountNumber + "-" + retry, initialBalance, additionalInfo);
+        }
+
+        Customer customer = customers.computeIfAbsent(customerName, Customer::new);
+        customer.addAccount(account);
+        return account;
+    }
 
+    private BankAccount newAccount(String type, String accountNumber, double initialBalance, double additionalInfo) {
         // Mistake: Using conditional statements to determine account type.
         // Solution: Use a factory pattern or interface-based design for better extensibility.
         switch (type) {
             case "checking":
-                account = new CheckingAccount("CHK" + System.currentTimeMillis(), initialBalance, additionalInfo);
-                break;
+                return new CheckingAccount(accountNumber, initialBalance, additionalInfo);
             case "savings":
-                account = new SavingsAccount("SAV" + System.currentTimeMillis(), initialBalance, additionalInfo);
-                break;
+                return new SavingsAccount(accountNumber, initialBalance, additionalInfo);
             case "loan":
-                account = new LoanAccount("LN" + System.currentTimeMillis(), initialBalance, additionalInfo);
-                break;
+                return new LoanAccount(accountNumber, initialBalance, additionalInfo);
             default:
-                account = new BankAccount("ACC" + System.currentTimeMillis(), initialBalance);
+                return new BankAccount(accountNumber, initialBalance);
         }
+    }
 
-        Customer customer = findCustomerByName(customerName);
-        if (customer == null) {
-            customer = new Customer(customerName);
-            customers.add(customer);
+    private String prefixFor(String type) {
+        switch (type) {
+            case "checking":
+                return "CHK";
+            case "savings":
+                return "SAV";
+            case "loan":
+                return "LN";
+            default:
+                return "ACC";
         }
-        customer.addAccount(account);
-        return account;
     }
 
-    public void transferFunds(BankAccount accountFrom, BankAccount accountTo, double amount) {
-        accountFrom.withdraw(amount);
-        accountTo.deposit(amount);
+    public WithdrawalResult transferFunds(BankAccount accountFrom, BankAccount accountTo, double amount) {
+        WithdrawalResult result = accountFrom.withdraw(amount);
+        if (result.isCompleted()) {
+            accountTo.deposit(amount);
+        }
+        return result;
     }
 
-    private Customer findCustomerByName(String name) {
-        for (Customer customer : customers) {
-            if (customer.getName().equals(name)) {
-                return customer;
-            }
-        }
-        return null;
+    public Customer findCustomerByName(String name) {
+        return customers.get(name);
+    }
+
+    public BankAccount findAccount(String accountNumber) {
+        return accounts.get(accountNumber);
     }
 }
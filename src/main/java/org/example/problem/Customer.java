@@ -2,12 +2,12 @@ package org.example.problem;
 
 import org.example.problem.accounts.BankAccount;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class Customer {
     private String name;
-    private List<BankAccount> accounts = new ArrayList<>();
+    private Queue<BankAccount> accounts = new ConcurrentLinkedQueue<>();
 
     public Customer(String name) {
         this.name = name;
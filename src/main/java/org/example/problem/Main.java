@@ -14,7 +14,7 @@ public class Main {
 
         // Perform transactions
         checkingAccount.deposit(200);
-        checkingAccount.withdraw(300);
+        reportRejection(checkingAccount.withdraw(300));
 
         // Cast to SavingsAccount to access interest calculation
         if (savingsAccount instanceof SavingsAccount) {
@@ -22,7 +22,7 @@ public class Main {
         }
 
         // Transfer funds
-        accountManager.transferFunds(checkingAccount, savingsAccount, 100);
+        reportRejection(accountManager.transferFunds(checkingAccount, savingsAccount, 100));
 
         // Display transaction history
         displayTransactions(checkingAccount);
@@ -36,4 +36,13 @@ public class Main {
             System.out.println(transaction.toString());
         }
     }
+
+    // withdraw only reports the outcome; telling the user about a rejection is the caller's job
+    private static void reportRejection(WithdrawalResult result) {
+        if (result == WithdrawalResult.INSUFFICIENT_FUNDS) {
+            System.out.println("Insufficient funds");
+        } else if (result == WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED) {
+            System.out.println("Overdraft limit exceeded");
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package org.example.problem.accounts;
 
 import org.example.problem.Transaction;
+import org.example.problem.WithdrawalResult;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -23,15 +24,15 @@ public class BankAccount {
         transactions.add(new Transaction("deposit", amount, new Date(), "Deposit made"));
     }
 
-    public void withdraw(double amount) {
+    public WithdrawalResult withdraw(double amount) {
         // Mistake: Withdraw logic doesn't handle overdraft or account-specific rules.
         // Solution: Consider using composition or interfaces to add custom withdrawal behavior.
         if (balance >= amount) {
             balance -= amount;
             transactions.add(new Transaction("withdrawal", amount, new Date(), "Withdrawal made"));
-        } else {
-            System.out.println("Insufficient funds");
+            return WithdrawalResult.COMPLETED;
         }
+        return WithdrawalResult.INSUFFICIENT_FUNDS;
     }
 
     public List<Transaction> getTransactionHistory() {
@@ -1,6 +1,7 @@
 package org.example.problem.accounts;
 
 import org.example.problem.Transaction;
+import org.example.problem.WithdrawalResult;
 
 import java.util.Date;
 
@@ -13,14 +14,14 @@ public class CheckingAccount extends BankAccount {
     }
 
     @Override
-    public void withdraw(double amount) {
+    public WithdrawalResult withdraw(double amount) {
         // Mistake: Overloading withdraw logic within a subclass, which may lead to code duplication if other accounts need custom logic.
         // Solution: Use composition to add overdraft behavior, making it more reusable and configurable.
         if (balance + overdraftLimit >= amount) {
             balance -= amount;
             transactions.add(new Transaction("withdrawal", amount, new Date(), "Withdrawal with overdraft"));
-        } else {
-            System.out.println("Overdraft limit exceeded");
+            return balance < 0 ? WithdrawalResult.OVERDRAWN : WithdrawalResult.COMPLETED;
         }
+        return WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED;
     }
 }
@@ -0,0 +1,66 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountAggregatesTest {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    @Test
+    void anOutOfOrderPostingMovesEveryLaterPeriod() {
+        AccountAggregates aggregates = new AccountAggregates(100);
+        aggregates.record(TransactionLog.DEPOSIT, 50, 150, at(10));
+        aggregates.record(TransactionLog.DEPOSIT, 20, 170, at(12));
+        // Replayed late: the account balance is already 175, but the deposit happened on day 11
+        aggregates.record(TransactionLog.DEPOSIT, 5, 175, at(11));
+
+        assertBalances(aggregates.day(day(10)), 100, 150);
+        assertBalances(aggregates.day(day(11)), 150, 155);
+        assertBalances(aggregates.day(day(12)), 155, 175);
+        assertEquals(5, aggregates.day(day(11)).getTotalDeposits());
+        Statement month = aggregates.month(YearMonth.of(1970, 1));
+        assertBalances(month, 100, 175);
+        assertEquals(75, month.getTotalDeposits());
+        assertEquals(3, month.getTransactionCount());
+        // A quiet day reports the balance the last active day closed at
+        assertBalances(aggregates.day(day(13)), 175, 175);
+        assertBalances(aggregates.day(day(5)), 100, 100);
+    }
+
+    @Test
+    void daysPastRetentionSurviveOnlyInMonthsAndLifetime() {
+        AccountAggregates aggregates = new AccountAggregates(0);
+        aggregates.record(TransactionLog.DEPOSIT, 10, 10, at(0));
+        aggregates.record(TransactionLog.WITHDRAWAL, 4, 6, at(AccountAggregates.DAY_RETENTION + 30));
+
+        assertThrows(IllegalArgumentException.class, () -> aggregates.day(day(0)));
+        assertBalances(aggregates.day(day(AccountAggregates.DAY_RETENTION + 30)), 10, 6);
+        assertEquals(10, aggregates.month(YearMonth.of(1970, 1)).getTotalDeposits());
+
+        // A late posting on a pruned day still moves the retained days, months and lifetime
+        aggregates.record(TransactionLog.INTEREST, 1, 7, at(1));
+        assertBalances(aggregates.day(day(AccountAggregates.DAY_RETENTION + 30)), 11, 7);
+        assertEquals(1, aggregates.month(YearMonth.of(1970, 1)).getInterestCredited());
+        Statement lifetime = aggregates.lifetime();
+        assertBalances(lifetime, 0, 7);
+        assertEquals(3, lifetime.getTransactionCount());
+    }
+
+    private static void assertBalances(Statement statement, double opening, double closing) {
+        assertEquals(opening, statement.getOpeningBalance(), 1e-9);
+        assertEquals(closing, statement.getClosingBalance(), 1e-9);
+    }
+
+    private static long at(long epochDay) {
+        return epochDay * MILLIS_PER_DAY + 1_000;
+    }
+
+    private static LocalDate day(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountFactoryTest {
+    @Test
+    void productCodesAreDenseAndStableAcrossReRegistration() {
+        AccountFactory factory = new AccountFactory();
+        int checking = factory.register("gold-checking", new CheckingProduct(500));
+        int savings = factory.register("gold-savings", new InterestProduct(0.03));
+
+        assertEquals(0, checking);
+        assertEquals(1, savings);
+        assertEquals(savings, factory.productCode("gold-savings"));
+        assertEquals(checking, factory.register("gold-checking", new CheckingProduct(800)));
+        BankAccount account = (BankAccount) factory.createAccount(checking, "ACC1", 0);
+        assertEquals(800, account.getOverdraft().getOverdraftLimit());
+        assertThrows(IllegalArgumentException.class, () -> factory.productCode("platinum"));
+    }
+
+    @Test
+    void unknownCodesAndConfiguredProductsRejectBadInput() {
+        AccountFactory factory = new AccountFactory();
+        int code = factory.register("gold-savings", new InterestProduct(0.03));
+
+        assertThrows(IllegalArgumentException.class, () -> factory.createAccount(code + 1, "ACC1", 0));
+        assertThrows(IllegalArgumentException.class, () -> factory.createAccount(-1, "ACC1", 0));
+        assertThrows(IllegalArgumentException.class, () -> factory.createAccount("gold-savings", "ACC1", 0, 0.05));
+        assertEquals(new InterestBearing(0.03),
+                ((BankAccount) factory.createAccount("gold-savings", "ACC1", 0, 0)).getInterestCalculator());
+    }
+
+    @Test
+    void managerOnboardsByProductCode() {
+        AccountFactory factory = new AccountFactory();
+        int code = factory.register("gold-savings", new InterestProduct(0.03));
+        try (AccountManager manager = new AccountManager(factory, 1_000)) {
+            IAccount[] accounts = manager.createAccounts(code, List.of("Alice", "Bob", "Alice"), 10);
+
+            assertEquals(3, accounts.length);
+            assertEquals(2, manager.findCustomerByName("Alice").getAccounts().size());
+            assertEquals(accounts[1], manager.findAccount(((BankAccount) accounts[1]).getAccountNumber()));
+            assertThrows(IllegalArgumentException.class, () -> manager.createAccount(code + 1, "Carol", 0));
+            assertNull(manager.findCustomerByName("Carol"));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountSnapshotTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoredAccountsKeepTheirSegmentAndInterestConfig() throws Exception {
+        OverdraftPolicy policy = new OverdraftPolicy(Map.of(OverdraftPolicy.STANDARD, 100.0, "premium", 1_000.0));
+        String premium;
+        String compounding;
+        String tiered;
+        try (AccountManager manager = new AccountManager(factory(policy))) {
+            premium = number(manager.createAccount("premium", "Alice", 50, 0));
+            compounding = number(manager.createAccount("compounding", "Alice", 1_000, 0));
+            tiered = number(manager.createAccount("tiered", "Bob", 5_000, 0));
+            manager.checkpoint(dir.resolve("snapshot"));
+        }
+
+        try (AccountManager restored = new AccountManager(factory(policy));
+             TransactionLog log = new TransactionLog(dir.resolve("wal"), 1000)) {
+            restored.restore(dir.resolve("snapshot"), log);
+            BankAccount account = (BankAccount) restored.findAccount(premium);
+            assertEquals("premium", assertInstanceOf(SegmentOverdraft.class, account.getOverdraft()).getSegment());
+            policy.update(Map.of("premium", 2_000.0));
+            assertEquals(2_000, account.getOverdraft().getOverdraftLimit());
+            assertEquals(compoundingInterest(), ((BankAccount) restored.findAccount(compounding)).getInterestCalculator());
+            assertEquals(tieredInterest(), ((BankAccount) restored.findAccount(tiered)).getInterestCalculator());
+        }
+    }
+
+    @Test
+    void restoreRefusesLogRecordsForAnAccountOpenedAfterTheCheckpoint() throws Exception {
+        OverdraftPolicy policy = new OverdraftPolicy(Map.of(OverdraftPolicy.STANDARD, 100.0));
+        String late;
+        try (AccountManager manager = new AccountManager(factory(policy));
+             TransactionLog log = new TransactionLog(dir.resolve("wal"), 1000)) {
+            manager.enableLog(log);
+            manager.createAccount("savings", "Alice", 100, 0.01).deposit(10);
+            manager.checkpoint(dir.resolve("snapshot"));
+            IAccount opened = manager.createAccount("savings", "Bob", 0, 0.01);
+            opened.deposit(500);
+            late = number(opened);
+        }
+
+        try (AccountManager restored = new AccountManager(factory(policy));
+             TransactionLog log = new TransactionLog(dir.resolve("wal"), 1000)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> restored.restore(dir.resolve("snapshot"), log));
+            assertTrue(e.getMessage().contains(late));
+        }
+    }
+
+    @Test
+    void booksKeepTheSegmentBinding() {
+        for (BookFormat format : BookFormat.values()) {
+            OverdraftPolicy policy = new OverdraftPolicy(Map.of(OverdraftPolicy.STANDARD, 100.0, "premium", 1_000.0));
+            Path accounts = dir.resolve("accounts-" + format);
+            String premium;
+            try (AccountManager manager = new AccountManager(factory(policy))) {
+                premium = number(manager.createAccount("premium", "Alice", 50, 0));
+                manager.exportBook(accounts, null, format);
+            }
+            try (AccountManager imported = new AccountManager(factory(policy))) {
+                imported.importBook(accounts, null, format);
+                BankAccount account = (BankAccount) imported.findAccount(premium);
+                assertEquals("premium", assertInstanceOf(SegmentOverdraft.class, account.getOverdraft()).getSegment());
+                assertEquals(50, account.getBalance());
+            }
+        }
+    }
+
+    @Test
+    void interestRunResumedAfterARestoreDoesNotCreditTwice() throws Exception {
+        Path progress = dir.resolve("interest-run");
+        long runStartedAt = LedgerClock.now();
+        String loan;
+        try (AccountManager manager = new AccountManager(new AccountFactory())) {
+            loan = number(manager.createAccount("loan", "Alice", 1_000, 0.1));
+            writeRunStart(progress, runStartedAt);
+            manager.accrueInterest(new InterestRunner(ForkJoinPool.commonPool(), progress));
+            manager.checkpoint(dir.resolve("snapshot"));
+        }
+        // The run's progress file survived, as it would if the process died before the run completed
+        writeRunStart(progress, runStartedAt);
+
+        try (AccountManager restored = new AccountManager(new AccountFactory());
+             TransactionLog log = new TransactionLog(dir.resolve("wal"), 1000)) {
+            restored.restore(dir.resolve("snapshot"), log);
+            InterestRunner resumed = new InterestRunner(ForkJoinPool.commonPool(), progress);
+            restored.accrueInterest(resumed);
+            BankAccount account = (BankAccount) restored.findAccount(loan);
+            assertEquals(1_100, account.getBalance(), 1e-9);
+            assertEquals(1, resumed.getSkipped());
+            assertEquals(AccountType.LOAN, account.getType());
+        }
+    }
+
+    private static void writeRunStart(Path progress, long runStartedAt) throws Exception {
+        Files.write(progress, ByteBuffer.allocate(Long.BYTES).putLong(runStartedAt).array());
+    }
+
+    private static AccountFactory factory(OverdraftPolicy policy) {
+        AccountFactory factory = new AccountFactory(new SnowflakeAccountNumberGenerator(), policy);
+        factory.register("premium", new CheckingProduct(policy, "premium"));
+        factory.register("compounding", new InterestProduct(compoundingInterest()));
+        factory.register("tiered", new InterestProduct(tieredInterest()));
+        return factory;
+    }
+
+    private static CompoundingInterest compoundingInterest() {
+        return CompoundingInterest.daily(0.05, DayCount.ACTUAL_365);
+    }
+
+    private static TieredInterest tieredInterest() {
+        return new TieredInterest(new double[]{0, 1_000, 10_000}, new double[]{0.01, 0.02, 0.03});
+    }
+
+    private static String number(Object account) {
+        return ((BankAccount) account).getAccountNumber();
+    }
+}
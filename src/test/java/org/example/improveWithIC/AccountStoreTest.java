@@ -0,0 +1,72 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void withdrawalsFollowTheAccountType() {
+        AccountStore store = new AccountStore(4);
+        int checking = store.create("checking", 100, 100);
+        int savings = store.create("savings", 100, 0.01);
+
+        assertEquals(WithdrawalResult.OVERDRAWN, store.withdraw(checking, 150));
+        assertEquals(WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED, store.withdraw(checking, 100));
+        assertEquals(-50, store.getBalance(checking));
+        assertEquals(WithdrawalResult.INSUFFICIENT_FUNDS, store.withdraw(savings, 150));
+        assertEquals(WithdrawalResult.COMPLETED, store.withdraw(savings, 100));
+
+        assertThrows(IllegalArgumentException.class, () -> store.create("premium", 0, 0));
+        assertEquals(2, store.size());
+        store.create("basic", 0, 0);
+        store.create("loan", -10, 0.1);
+        assertThrows(IllegalStateException.class, () -> store.create("basic", 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getBalance(4));
+    }
+
+    @Test
+    void scansCoverEveryBlock() {
+        int accounts = 10_000;
+        AccountStore store = new AccountStore(accounts);
+        for (int i = 0; i < accounts; i++) {
+            store.create(i % 2 == 0 ? "savings" : "checking", 100, i % 2 == 0 ? 0.1 : 50);
+        }
+        store.withdraw(1, 120);
+        store.withdraw(9_999, 130);
+
+        store.accrueInterest();
+
+        assertEquals(110, store.view(0).getBalance());
+        assertEquals(100, store.view(3).getBalance());
+        assertArrayEquals(new int[]{1, 9_999}, store.findOverdrawn());
+        assertEquals(accounts / 2 * 110.0 + accounts / 2 * 100.0 - 250, store.totalBalance(), 1e-6);
+    }
+
+    @Test
+    void everyBalanceChangeIsLogged() throws Exception {
+        AccountStore store = new AccountStore(2);
+        int savings = store.create("savings", 100, 0.1);
+        List<String> records = new ArrayList<>();
+        try (TransactionLog log = new TransactionLog(dir.resolve("wal"), 1000)) {
+            store.enableLog(log);
+            store.deposit(savings, 100);
+            store.withdraw(savings, 50);
+            store.accrueInterest();
+            log.replay((position, type, accountNumber, amount, timestamp) -> records.add(type + ":" + amount));
+        }
+        assertEquals(List.of(TransactionLog.DEPOSIT + ":100.0", TransactionLog.WITHDRAWAL + ":50.0",
+                TransactionLog.INTEREST + ":15.0"), records);
+        assertEquals(165, store.getBalance(savings), 1e-9);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.improveWithIC;
+
+import org.example.improveWithIC.interfaces.IAccount;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class BankAccountConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 20_000;
+
+    // Opposite transfers run both accounts into their limits; the default handler would print every rejection
+    @BeforeAll
+    static void silenceRejections() {
+        RejectionEvents.setHandler(events -> { });
+    }
+
+    @Test
+    void concurrentDepositsAndWithdrawalsOnSharedAndOwnAccountsLoseNoUpdates() throws Exception {
+        BankAccount shared = new BankAccount("ACC-SHARED", 0, null, null);
+        BankAccount[] own = new BankAccount[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            own[t] = new BankAccount("ACC-" + t, 0, null, null);
+        }
+
+        runConcurrently(t -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                shared.deposit(3);
+                shared.withdraw(1);
+                own[t].deposit(1);
+            }
+        });
+
+        assertEquals(2.0 * THREADS * OPERATIONS, shared.getBalance());
+        for (BankAccount account : own) {
+            assertEquals(OPERATIONS, account.getBalance());
+        }
+        assertEquals(2 * THREADS * OPERATIONS, shared.getTransactionHistory().size());
+    }
+
+    @Test
+    void oppositeTransfersConserveMoneyWithoutDeadlock() {
+        AccountManager accountManager = new AccountManager(new AccountFactory());
+        IAccount alice = accountManager.createAccount("checking", "Alice", 1_000, 500);
+        IAccount bob = accountManager.createAccount("checking", "Bob", 1_000, 500);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> runConcurrently(t -> {
+            IAccount from = t % 2 == 0 ? alice : bob;
+            IAccount to = t % 2 == 0 ? bob : alice;
+            for (int i = 0; i < OPERATIONS; i++) {
+                accountManager.transferFunds(from, to, 7);
+            }
+        }));
+
+        assertEquals(2_000, ((BankAccount) alice).getBalance() + ((BankAccount) bob).getBalance());
+        assertEquals(2_000, accountManager.findCustomerByName("Alice").getPortfolio().getTotalBalance()
+                + accountManager.findCustomerByName("Bob").getPortfolio().getTotalBalance(), 1e-6);
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(index);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(), failures);
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookImporterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void missingBinaryTransactionsFileIsNotCreated() {
+        Path transactions = dir.resolve("transactions");
+        try (AccountManager manager = new AccountManager(new AccountFactory())) {
+            UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                    () -> BookImporter.importTransactions(manager, transactions, BookFormat.BINARY));
+            assertInstanceOf(NoSuchFileException.class, e.getCause());
+        }
+        assertFalse(Files.exists(transactions));
+    }
+
+    @Test
+    void importedAccountsIgnoreProductsRegisteredUnderTheirTypeName() throws Exception {
+        Path accounts = dir.resolve("accounts.csv");
+        Files.writeString(accounts, BookImporter.ACCOUNTS_HEADER + "\nAlice,ACC1,checking,10.0,250.0,\nBob,ACC2,savings,10.0,0.02\n");
+        AccountFactory factory = new AccountFactory();
+        factory.register("checking", new CheckingProduct(5));
+        factory.register("savings", new InterestProduct(0.5));
+        try (AccountManager manager = new AccountManager(factory)) {
+            assertEquals(2, manager.importBook(accounts, null, BookFormat.CSV));
+            BankAccount checking = (BankAccount) manager.findAccount("ACC1");
+            assertEquals(250, checking.getOverdraft().getOverdraftLimit());
+            assertNull(checking.getInterestCalculator());
+            assertEquals(new InterestBearing(0.02), ((BankAccount) manager.findAccount("ACC2")).getInterestCalculator());
+        }
+    }
+
+    @Test
+    void booksKeepLoansAndInterestTerms() {
+        CompoundingInterest compounding = CompoundingInterest.daily(0.05, DayCount.ACTUAL_365);
+        TieredInterest tiered = new TieredInterest(new double[]{0, 1_000}, new double[]{0.01, 0.02});
+        for (BookFormat format : BookFormat.values()) {
+            Path accounts = dir.resolve("accounts-" + format);
+            Path transactions = dir.resolve("transactions-" + format);
+            AccountFactory factory = new AccountFactory();
+            factory.register("compounding", new InterestProduct(compounding));
+            factory.register("tiered", new InterestProduct(tiered));
+            String loan;
+            String compoundingNumber;
+            String tieredNumber;
+            try (AccountManager manager = new AccountManager(factory)) {
+                loan = ((BankAccount) manager.createAccount("loan", "Alice", -500, 0.07)).getAccountNumber();
+                compoundingNumber = ((BankAccount) manager.createAccount("compounding", "Alice", 100, 0)).getAccountNumber();
+                tieredNumber = ((BankAccount) manager.createAccount("tiered", "Bob", 2_000, 0)).getAccountNumber();
+                manager.findAccount(tieredNumber).deposit(5);
+                manager.exportBook(accounts, transactions, format);
+            }
+            try (AccountManager imported = new AccountManager(new AccountFactory())) {
+                imported.importBook(accounts, transactions, format);
+                BankAccount importedLoan = (BankAccount) imported.findAccount(loan);
+                assertEquals(AccountType.LOAN, importedLoan.getType());
+                assertEquals(new InterestBearing(0.07), importedLoan.getInterestCalculator());
+                assertEquals(compounding, ((BankAccount) imported.findAccount(compoundingNumber)).getInterestCalculator());
+                assertEquals(tiered, ((BankAccount) imported.findAccount(tieredNumber)).getInterestCalculator());
+                assertEquals(2_005, imported.findAccount(tieredNumber).getBalance());
+            }
+        }
+    }
+
+    @Test
+    void binaryAccountWithAnUnknownTypeCodeIsRejected() throws Exception {
+        Path accounts = dir.resolve("accounts");
+        ByteBuffer book = ByteBuffer.allocate(64);
+        book.putInt(BookImporter.MAGIC).putInt(BookImporter.VERSION);
+        book.putShort((short) 1).put((byte) 'A').putShort((short) 1).put((byte) '1');
+        book.put((byte) 9).putDouble(10).putDouble(0).putShort((short) 0).put(BookImporter.PLAIN_INTEREST);
+        Files.write(accounts, Arrays.copyOf(book.array(), book.position()));
+        try (AccountManager manager = new AccountManager(new AccountFactory())) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> BookImporter.importAccounts(manager, accounts, BookFormat.BINARY));
+            assertTrue(e.getMessage().contains("unknown account type code 9"));
+        }
+    }
+
+    @Test
+    void transactionsAreNotImportedPastAnEnabledLog() throws Exception {
+        Path transactions = dir.resolve("transactions.csv");
+        Files.writeString(transactions, BookImporter.TRANSACTIONS_HEADER + "\n");
+        try (AccountManager manager = new AccountManager(new AccountFactory());
+             TransactionLog log = new TransactionLog(dir.resolve("wal"), 1000)) {
+            manager.enableLog(log);
+            assertThrows(IllegalStateException.class,
+                    () -> BookImporter.importTransactions(manager, transactions, BookFormat.CSV));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistoryQueryTest {
+    @Test
+    void rangeTypeLimitAndOrderAreAppliedAcrossChunks() {
+        TransactionJournal journal = new TransactionJournal();
+        // Timestamps 0..2999 cross several chunks; every third entry is a withdrawal
+        for (int i = 0; i < 3_000; i++) {
+            journal.append(i % 3 == 0 ? "withdrawal" : "deposit", i, i, "Entry");
+        }
+
+        assertEquals(List.of(1_000.0, 1_001.0, 1_002.0), amounts(journal, HistoryQuery.all().between(1_000, 1_003)));
+        assertEquals(List.of(2_999.0, 2_998.0), amounts(journal, HistoryQuery.latest(2)));
+        assertEquals(List.of(1_023.0, 1_026.0, 1_029.0),
+                amounts(journal, HistoryQuery.all().between(1_022, 1_030).ofType("withdrawal")));
+        assertEquals(List.of(1_028.0, 1_027.0),
+                amounts(journal, HistoryQuery.all().between(1_022, 1_030).ofType("deposit").newestFirst().limit(2)));
+        assertEquals(0, journal.query(HistoryQuery.all().between(5_000, 6_000)).count());
+        assertEquals(0, journal.query(HistoryQuery.all().ofType("interest")).count());
+    }
+
+    @Test
+    void outOfOrderEntriesAreStillFound() {
+        TransactionJournal journal = new TransactionJournal();
+        journal.append("deposit", 1, 100, "Entry");
+        journal.append("deposit", 2, 300, "Entry");
+        // Replayed under a different clock: earlier than the entry before it
+        journal.append("deposit", 3, 200, "Entry");
+        journal.append("deposit", 4, 400, "Entry");
+
+        assertEquals(List.of(2.0, 3.0), amounts(journal, HistoryQuery.all().between(200, 400)));
+        assertEquals(List.of(3.0, 2.0), amounts(journal, HistoryQuery.all().between(200, 400).newestFirst()));
+    }
+
+    @Test
+    void accountHistoryQueriesSeeEveryPosting() {
+        BankAccount account = new BankAccount("ACC1", 100, null, new InterestBearing(0.1));
+        account.deposit(50);
+        account.withdraw(30);
+        account.calculateInterest();
+
+        List<String> types = account.queryHistory(HistoryQuery.latest(10))
+                .map(Transaction::getType).collect(Collectors.toList());
+        assertEquals(List.of("interest", "withdrawal", "deposit"), types);
+        assertEquals(List.of(12.0), account.queryHistory(HistoryQuery.all().ofType("interest"))
+                .map(Transaction::getAmount).collect(Collectors.toList()));
+    }
+
+    private static List<Double> amounts(TransactionJournal journal, HistoryQuery query) {
+        return journal.query(query).map(Transaction::getAmount).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InterestPostingTest {
+    @Test
+    void interestIsPostedAsOneInterestEntry() {
+        BankAccount account = new BankAccount("ACC1", 1_000, null, new InterestBearing(0.01));
+
+        account.calculateInterest();
+
+        List<Transaction> history = account.getTransactionHistory();
+        assertEquals(1, history.size());
+        assertEquals("interest", history.get(0).getType());
+        assertEquals(10, history.get(0).getAmount(), 1e-9);
+        assertEquals(1_010, account.getBalance(), 1e-9);
+    }
+
+    // The journal's own columns cost about 21 bytes per entry once amortised; anything far above that is garbage
+    @Test
+    void interestPostingAllocatesOnlyJournalStorage() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BankAccount account = new BankAccount("ACC1", 1_000, null, new InterestBearing(0.0001));
+        int postings = 200_000;
+        for (int i = 0; i < postings; i++) {
+            account.calculateInterest();
+        }
+
+        account = new BankAccount("ACC2", 1_000, null, new InterestBearing(0.0001));
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < postings; i++) {
+            account.calculateInterest();
+        }
+        long perPosting = (threads.getCurrentThreadAllocatedBytes() - before) / postings;
+
+        assertEquals(postings, account.getTransactionHistory().size());
+        assertTrue(perPosting <= 32, "allocated " + perPosting + " bytes per interest posting");
+    }
+}
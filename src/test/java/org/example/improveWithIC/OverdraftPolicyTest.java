@@ -0,0 +1,43 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OverdraftPolicyTest {
+    @Test
+    void repricingASegmentAppliesToEveryAccountBoundToIt() {
+        OverdraftPolicy policy = new OverdraftPolicy(Map.of(OverdraftPolicy.STANDARD, 100.0, "premium", 1_000.0));
+        long version = policy.getVersion();
+        BankAccount standard = new BankAccount("ACC1", 0, policy.forSegment(OverdraftPolicy.STANDARD), null);
+        BankAccount premium = new BankAccount("ACC2", 0, policy.forSegment("premium"), null);
+
+        assertEquals(WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED, standard.withdraw(500));
+        assertEquals(WithdrawalResult.OVERDRAWN, premium.withdraw(500));
+
+        assertEquals(version + 1, policy.update(Map.of(OverdraftPolicy.STANDARD, 600.0, "premium", 400.0)));
+        assertEquals(600, policy.getLimit(OverdraftPolicy.STANDARD));
+        assertEquals(WithdrawalResult.OVERDRAWN, standard.withdraw(500));
+        assertEquals(WithdrawalResult.OVERDRAFT_LIMIT_EXCEEDED, premium.withdraw(1));
+        assertEquals(0, policy.getLimit("unknown"));
+    }
+
+    @Test
+    void overdrawnAccountsAreListedDeepestFirstUntilTheyRecover() {
+        OverdraftPolicy policy = new OverdraftPolicy(Map.of(OverdraftPolicy.STANDARD, 1_000.0));
+        BankAccount shallow = new BankAccount("ACC1", 0, policy.forSegment(OverdraftPolicy.STANDARD), null);
+        BankAccount deep = new BankAccount("ACC2", 0, policy.forSegment(OverdraftPolicy.STANDARD), null);
+        BankAccount positive = new BankAccount("ACC3", 50, policy.forSegment(OverdraftPolicy.STANDARD), null);
+
+        shallow.withdraw(100);
+        deep.withdraw(700);
+        positive.withdraw(20);
+        assertEquals(List.of(deep, shallow), policy.findOverdrawnAccounts());
+
+        deep.deposit(700);
+        assertEquals(List.of(shallow), policy.findOverdrawnAccounts());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.improveWithIC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentDurableAppendsAreAllReplayed() throws Exception {
+        Path file = dir.resolve("wal");
+        int threads = 8;
+        int perThread = 2_000;
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String accountNumber = "ACC" + t;
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        log.awaitDurable(log.append(TransactionLog.DEPOSIT, accountNumber, i, i));
+                    }
+                });
+                writer.start();
+                writers.add(writer);
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        Set<String> seen = new HashSet<>();
+        int[] count = new int[1];
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            log.replay((position, type, accountNumber, amount, timestamp) -> {
+                seen.add(accountNumber + ":" + (long) amount);
+                count[0]++;
+            });
+            assertEquals((long) threads * perThread * TransactionLog.RECORD_SIZE, log.position());
+        }
+        assertEquals(threads * perThread, count[0]);
+        assertEquals(threads * perThread, seen.size());
+    }
+
+    @Test
+    void replayStopsAtATornRecordAndReopeningDropsEverythingAfterIt() throws Exception {
+        Path file = dir.resolve("wal");
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(TransactionLog.DEPOSIT, "ACC1", i, i);
+            }
+            log.flush();
+        }
+        // Flip one byte of the amount in record 6, as a partly written page would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 6L * TransactionLog.RECORD_SIZE + 20);
+        }
+
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            List<Double> amounts = new ArrayList<>();
+            log.replay((position, type, accountNumber, amount, timestamp) -> amounts.add(amount));
+            assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0, 5.0), amounts);
+            assertEquals(6L * TransactionLog.RECORD_SIZE, log.position());
+            log.append(TransactionLog.WITHDRAWAL, "ACC1", 42, 42);
+            log.flush();
+        }
+
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            List<Double> amounts = new ArrayList<>();
+            log.replay((position, type, accountNumber, amount, timestamp) -> amounts.add(amount));
+            assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 42.0), amounts);
+            assertEquals(7L * TransactionLog.RECORD_SIZE, log.position());
+        }
+    }
+
+    @Test
+    void aTransferWhoseCreditIsLostIsDroppedWithItsDebit() throws Exception {
+        Path file = dir.resolve("wal");
+        byte[] from = TransactionLog.encodeAccountNumber("ACC1");
+        byte[] to = TransactionLog.encodeAccountNumber("ACC2");
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            log.appendTransfer(from, to, 10, 1);
+            log.appendTransfer(from, to, 20, 2);
+            log.flush();
+        }
+
+        List<String> legs = new ArrayList<>();
+        TransactionLog.read(file, (position, type, accountNumber, amount, timestamp) ->
+                legs.add(type + ":" + accountNumber + ":" + amount));
+        assertEquals(List.of(TransactionLog.WITHDRAWAL + ":ACC1:10.0", TransactionLog.DEPOSIT + ":ACC2:10.0",
+                TransactionLog.WITHDRAWAL + ":ACC1:20.0", TransactionLog.DEPOSIT + ":ACC2:20.0"), legs);
+
+        // Tear the second transfer's credit, as a crash between the two records would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 3L * TransactionLog.RECORD_SIZE + 20);
+        }
+        try (TransactionLog log = new TransactionLog(file, 1000)) {
+            List<Double> amounts = new ArrayList<>();
+            log.replay((position, type, accountNumber, amount, timestamp) -> amounts.add(amount));
+            assertEquals(List.of(10.0, 10.0), amounts);
+            assertEquals(2L * TransactionLog.RECORD_SIZE, log.position());
+        }
+    }
+}